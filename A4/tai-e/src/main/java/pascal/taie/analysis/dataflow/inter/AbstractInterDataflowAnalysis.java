@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
@@ -34,6 +36,8 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
  *
@@ -121,7 +125,13 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        if (getOptions().getBooleanOrDefault("parallel", false)) {
+            CallGraph<?, Method> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            solver = new SCCParallelInterSolver<>(
+                    this, icfg, callGraph, ForkJoinPool.commonPool());
+        } else {
+            solver = new InterSolver<>(this, icfg);
+        }
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
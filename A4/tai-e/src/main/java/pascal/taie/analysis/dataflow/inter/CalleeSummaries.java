@@ -0,0 +1,252 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SCC;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Context-sensitive return values of callees for inter-procedural
+ * constant propagation. A summary maps a callee and an abstract argument
+ * vector, i.e., a {@link CPFact} of the callee's parameters, to the return
+ * value of the callee under the arguments. The summary is computed by
+ * analyzing the callee's body with the arguments, and the calls in the body
+ * via summaries, and it is memoized, so that the calls with the same
+ * arguments share it. As the return values are distinguished by arguments,
+ * they may be more precise than the ones merged over all call sites.
+ * <p>
+ * The summaries of the methods in a recursive SCC of the call graph
+ * depend on each other. Each summary records the summaries that it is
+ * computed with, and it is invalidated, i.e., recomputed, whenever any of
+ * them changes, until no summary changes. To keep the number of summaries
+ * finite, the calls within a recursive SCC are summarized with the
+ * arguments widened to NAC.
+ */
+class CalleeSummaries {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Map from each method in a recursive SCC of the call graph to the SCC.
+     */
+    private final Map<JMethod, List<JMethod>> recursiveSCCs = Maps.newMap();
+
+    private final Map<Call, Value> summaries = Maps.newMap();
+
+    /**
+     * Map from each summary to the summaries that are computed with it.
+     */
+    private final MultiMap<Call, Call> dependents = Maps.newMultiMap();
+
+    /**
+     * Summaries to be (re)computed.
+     */
+    private final Queue<Call> workList = new ArrayDeque<>();
+
+    /**
+     * A callee with its abstract argument vector.
+     */
+    private record Call(JMethod callee, CPFact args) {
+    }
+
+    CalleeSummaries(ICFG<JMethod, Stmt> icfg, ConstantPropagation cp,
+                    Graph<JMethod> callGraph) {
+        this.icfg = icfg;
+        this.cp = cp;
+        for (List<JMethod> scc : new SCC<>(callGraph).getTrueComponents()) {
+            scc.forEach(m -> recursiveSCCs.put(m, scc));
+        }
+    }
+
+    /**
+     * @return the projection of {@code callSiteOut} on the parameters
+     * of {@code callee}, i.e., the facts of the parameters that receive
+     * the arguments of {@code callSite}.
+     */
+    static CPFact projectArgs(Invoke callSite, JMethod callee, CPFact callSiteOut) {
+        CPFact args = new CPFact();
+        List<Var> params = callee.getIR().getParams();
+        List<Var> argVars = callSite.getInvokeExp().getArgs();
+        for (int i = 0; i < params.size(); i++) {
+            args.update(params.get(i), callSiteOut.get(argVars.get(i)));
+        }
+        return args;
+    }
+
+    /**
+     * @return the return value of {@code callee} when it is called with
+     * {@code args}, or {@code null} if the CFG of callee is absent.
+     * This method is synchronized as the summaries may be queried
+     * concurrently by {@link SCCParallelInterSolver}.
+     */
+    @Nullable
+    synchronized Value getReturnValue(JMethod callee, CPFact args) {
+        if (getCFGOf(callee) == null) {
+            return null;
+        }
+        Call call = new Call(callee, args);
+        Value value = summaries.get(call);
+        if (value == null) {
+            call = new Call(callee, args.copy());
+            addSummary(call);
+            solve();
+            value = summaries.get(call);
+        }
+        return value;
+    }
+
+    /**
+     * Adds a summary which is computed later, and is UNDEF until then.
+     */
+    private void addSummary(Call call) {
+        summaries.put(call, Value.getUndef());
+        workList.add(call);
+    }
+
+    /**
+     * (Re)computes the summaries in the work list, and invalidates the
+     * dependents of each changed summary, until no summary changes.
+     * As the transfer of constant propagation is monotone, each summary
+     * only changes from UNDEF to a constant, and then to NAC.
+     */
+    private void solve() {
+        while (!workList.isEmpty()) {
+            Call call = workList.poll();
+            Value value = summarize(call);
+            if (!value.equals(summaries.put(call, value))) {
+                workList.addAll(dependents.get(call));
+            }
+        }
+    }
+
+    /**
+     * Analyzes the body of the callee of {@code call} with its arguments.
+     *
+     * @return the meet of values of the returned variables.
+     */
+    private Value summarize(Call call) {
+        IR ir = call.callee().getIR();
+        CFG<Stmt> cfg = getCFGOf(call.callee());
+        Map<Stmt, CPFact> outFacts = Maps.newMap(cfg.getNumberOfNodes());
+        for (Stmt node : cfg) {
+            outFacts.put(node, new CPFact());
+        }
+        outFacts.put(cfg.getEntry(), call.args().copy());
+        Queue<Stmt> workList = new ArrayDeque<>(cfg.getNodes());
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            if (cfg.isEntry(node)) {
+                continue;
+            }
+            CPFact in = new CPFact();
+            cfg.getPredsOf(node).forEach(pred -> cp.meetInto(outFacts.get(pred), in));
+            if (transferNode(call, node, in, outFacts.get(node))) {
+                workList.addAll(cfg.getSuccsOf(node));
+            }
+        }
+        CPFact exitOut = outFacts.get(cfg.getExit());
+        Value value = Value.getUndef();
+        for (Var retVar : ir.getReturnVars()) {
+            value = cp.meetValue(value, exitOut.get(retVar));
+        }
+        return value;
+    }
+
+    private boolean transferNode(Call caller, Stmt stmt, CPFact in, CPFact out) {
+        if (stmt instanceof Invoke invoke && icfg.isCallSite(invoke)) {
+            CPFact oldOut = out.copy();
+            out.clear();
+            out.copyFrom(in);
+            Var lVar = invoke.getLValue();
+            if (lVar != null) {
+                // same as transferReturnEdge(), absence of callees
+                // (or their CFGs) leaves lVar UNDEF
+                Value value = Value.getUndef();
+                for (JMethod callee : icfg.getCalleesOf(invoke)) {
+                    if (getCFGOf(callee) != null) {
+                        value = cp.meetValue(value, getSummary(caller,
+                                callee, projectArgs(invoke, callee, in)));
+                    }
+                }
+                out.update(lVar, value);
+            }
+            return !out.equals(oldOut);
+        } else {
+            return cp.transferNode(stmt, in, out);
+        }
+    }
+
+    /**
+     * @return the current summary of {@code callee} for {@code args},
+     * which is used to compute the summary {@code caller}.
+     */
+    private Value getSummary(Call caller, JMethod callee, CPFact args) {
+        List<JMethod> scc = recursiveSCCs.get(callee);
+        if (scc != null && scc.contains(caller.callee())) {
+            args = widen(args);
+        }
+        Call call = new Call(callee, args);
+        Value value = summaries.get(call);
+        if (value == null) {
+            addSummary(call);
+            value = Value.getUndef();
+        }
+        dependents.put(call, caller);
+        return value;
+    }
+
+    /**
+     * @return a copy of {@code args} whose values are all NAC.
+     */
+    private static CPFact widen(CPFact args) {
+        CPFact widened = new CPFact();
+        args.forEach((param, __) -> widened.update(param, Value.getNAC()));
+        return widened;
+    }
+
+    @Nullable
+    private static CFG<Stmt> getCFGOf(JMethod method) {
+        return method.getIR().getResult(CFGBuilder.ID);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+/**
+ * Represents the edge functions of IDE problems, which transform
+ * the value associated with a fact into the value associated with
+ * another fact. The implementations must override {@link Object#equals(Object)}
+ * properly, as the solver compares edge functions to detect fixed-points.
+ *
+ * @param <V> type of values
+ */
+public interface EdgeFunction<V> {
+
+    /**
+     * @return the result of applying this function to {@code source}.
+     */
+    V computeTarget(V source);
+
+    /**
+     * @return the function that first applies this function and then
+     * applies {@code second}.
+     */
+    EdgeFunction<V> composeWith(EdgeFunction<V> second);
+
+    /**
+     * @return the function whose result is the meet of the results
+     * of this function and {@code other}.
+     */
+    EdgeFunction<V> meetWith(EdgeFunction<V> other);
+
+    /**
+     * @return the identity function.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> EdgeFunction<V> identity() {
+        return (EdgeFunction<V>) (EdgeFunction<?>) EdgeIdentity.INSTANCE;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+/**
+ * The identity edge function. As the solver uses the absence of a jump
+ * function to represent the function that maps everything to the top
+ * value, meeting the identity with itself (the only case in IFDS
+ * problems) yields the identity.
+ */
+enum EdgeIdentity implements EdgeFunction<Object> {
+
+    INSTANCE;
+
+    @Override
+    public Object computeTarget(Object source) {
+        return source;
+    }
+
+    @Override
+    public EdgeFunction<Object> composeWith(EdgeFunction<Object> second) {
+        return second;
+    }
+
+    @Override
+    public EdgeFunction<Object> meetWith(EdgeFunction<Object> other) {
+        return other == this ? this : other.meetWith(this);
+    }
+
+    @Override
+    public String toString() {
+        return "id";
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of interprocedural copy-constant propagation for int
+ * values as an IDE problem.
+ * <p>
+ * Different from {@link IFDSConstantPropagation}, the facts are the
+ * variables themselves, and their values are computed by the second
+ * phase of {@link IDESolver}. The edge functions are of the form
+ * λv.(v ⊓ c) or λv.c, where c is a value of {@link Value}, thus both
+ * analyses compute the same results.
+ */
+public class IDEConstantPropagation extends ProgramAnalysis {
+
+    public static final String ID = "ide-constprop";
+
+    private static final ConstantPropagation cp =
+            new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+
+    public IDEConstantPropagation(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Object analyze() {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        IDEResult<Stmt, Fact, Value> values =
+                new IDESolver<>(new Problem(icfg), icfg).solve();
+        // converts the IDE results to CPFacts
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt stmt : icfg) {
+            CPFact in = new CPFact();
+            for (Fact fact : values.getFactsAt(stmt)) {
+                in.update(fact.var(), values.getValue(stmt, fact));
+            }
+            result.setInFact(stmt, in);
+            result.setOutFact(stmt, icfg.isCallSite(stmt) ?
+                    in.copy() : transfer(stmt, in));
+        }
+        return result;
+    }
+
+    /**
+     * Transfer function of non-call nodes.
+     */
+    private static CPFact transfer(Stmt stmt, CPFact in) {
+        CPFact out = in.copy();
+        Var lVar = getDefinedVar(stmt);
+        if (lVar != null) {
+            RValue rValue = ((DefinitionStmt<?, ?>) stmt).getRValue();
+            out.update(lVar, rValue instanceof Var rVar ?
+                    in.get(rVar) : evaluate(rValue));
+        }
+        return out;
+    }
+
+    /**
+     * @return the int variable defined by {@code stmt},
+     * or {@code null} if {@code stmt} does not define such variable.
+     */
+    private static Var getDefinedVar(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                defStmt.getLValue() instanceof Var lVar &&
+                ConstantPropagation.canHoldInt(lVar)) {
+            return lVar;
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates the right-hand side of a definition that is not a copy.
+     */
+    private static Value evaluate(RValue rValue) {
+        return rValue instanceof IntLiteral literal ?
+                Value.makeConstant(literal.getValue()) : Value.getNAC();
+    }
+
+    private static class Problem implements IDEProblem<Stmt, Fact, Value> {
+
+        private final ICFG<JMethod, Stmt> icfg;
+
+        private Problem(ICFG<JMethod, Stmt> icfg) {
+            this.icfg = icfg;
+        }
+
+        @Override
+        public Fact zeroValue() {
+            return Fact.ZERO;
+        }
+
+        @Override
+        public Set<Fact> getInitialFacts(Stmt entry) {
+            // the parameters of entry methods are associated with
+            // the bottom value (NAC) by identity functions
+            Set<Fact> facts = Sets.newSet();
+            for (Var param : icfg.getContainingMethodOf(entry).getIR().getParams()) {
+                if (ConstantPropagation.canHoldInt(param)) {
+                    facts.add(new Fact(param));
+                }
+            }
+            return facts;
+        }
+
+        @Override
+        public Set<Fact> getNormalFlow(NormalEdge<Stmt> edge, Fact fact) {
+            Var lVar = getDefinedVar(edge.getSource());
+            if (lVar != null) {
+                RValue rValue = ((DefinitionStmt<?, ?>) edge.getSource()).getRValue();
+                if (fact == Fact.ZERO) {
+                    // copies are handled by the fact of right-hand side
+                    return rValue instanceof Var ?
+                            Set.of(fact) : Set.of(fact, new Fact(lVar));
+                } else if (fact.var().equals(lVar)) {
+                    // kill the old value of lVar, except for lVar = lVar
+                    return rValue.equals(lVar) ? Set.of(fact) : Set.of();
+                } else if (rValue.equals(fact.var())) {
+                    return Set.of(fact, new Fact(lVar));
+                }
+            }
+            return Set.of(fact);
+        }
+
+        @Override
+        public Set<Fact> getCallToReturnFlow(CallToReturnEdge<Stmt> edge, Fact fact) {
+            Var lVar = ((Invoke) edge.getSource()).getLValue();
+            // the value of lVar flows from the return edges
+            return fact != Fact.ZERO && fact.var().equals(lVar) ?
+                    Set.of() : Set.of(fact);
+        }
+
+        @Override
+        public Set<Fact> getCallFlow(CallEdge<Stmt> edge, Fact fact) {
+            if (fact == Fact.ZERO) {
+                return Set.of(fact);
+            }
+            Set<Fact> facts = Sets.newSet();
+            List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+            List<Var> params = edge.getCallee().getIR().getParams();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i).equals(fact.var()) &&
+                        ConstantPropagation.canHoldInt(params.get(i))) {
+                    facts.add(new Fact(params.get(i)));
+                }
+            }
+            return facts;
+        }
+
+        @Override
+        public Set<Fact> getReturnFlow(ReturnEdge<Stmt> edge, Fact fact) {
+            if (fact == Fact.ZERO) {
+                return Set.of(fact);
+            }
+            Var lVar = ((Invoke) edge.getCallSite()).getLValue();
+            if (lVar != null && ConstantPropagation.canHoldInt(lVar) &&
+                    edge.getReturnVars().contains(fact.var())) {
+                return Set.of(new Fact(lVar));
+            }
+            return Set.of();
+        }
+
+        @Override
+        public EdgeFunction<Value> getEdgeFunction(
+                ICFGEdge<Stmt> edge, Fact source, Fact target) {
+            if (source == Fact.ZERO && target != Fact.ZERO) {
+                // target is generated by a definition which is not a copy
+                RValue rValue = ((DefinitionStmt<?, ?>) edge.getSource()).getRValue();
+                return new CPEdgeFunction(false, evaluate(rValue));
+            }
+            return EdgeFunction.identity();
+        }
+
+        @Override
+        public Value topValue() {
+            return Value.getUndef();
+        }
+
+        @Override
+        public Value bottomValue() {
+            return Value.getNAC();
+        }
+
+        @Override
+        public Value meet(Value v1, Value v2) {
+            return cp.meetValue(v1, v2);
+        }
+    }
+
+    /**
+     * Fact of copy-constant propagation, i.e., the value of {@code var}.
+     */
+    private record Fact(Var var) {
+
+        /**
+         * The zero value of the IDE problem.
+         */
+        private static final Fact ZERO = new Fact(null);
+    }
+
+    /**
+     * Edge function λv.(v ⊓ constant) if {@code passThrough} is true,
+     * otherwise λv.constant. The identity function λv.(v ⊓ UNDEF)
+     * is always represented by {@link EdgeFunction#identity()},
+     * so that the solver can detect fixed-points by comparing functions.
+     */
+    private record CPEdgeFunction(boolean passThrough, Value constant)
+            implements EdgeFunction<Value> {
+
+        private static EdgeFunction<Value> of(boolean passThrough, Value constant) {
+            return passThrough && constant.isUndef() ?
+                    EdgeFunction.identity() :
+                    new CPEdgeFunction(passThrough, constant);
+        }
+
+        /**
+         * Converts {@code fn} to a CPEdgeFunction. Besides CPEdgeFunction,
+         * the only edge function of this problem is the identity.
+         */
+        private static CPEdgeFunction from(EdgeFunction<Value> fn) {
+            return fn instanceof CPEdgeFunction cpFn ?
+                    cpFn : new CPEdgeFunction(true, Value.getUndef());
+        }
+
+        @Override
+        public Value computeTarget(Value source) {
+            return passThrough ? cp.meetValue(source, constant) : constant;
+        }
+
+        @Override
+        public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+            CPEdgeFunction g = from(second);
+            return g.passThrough ?
+                    of(passThrough, cp.meetValue(constant, g.constant)) : g;
+        }
+
+        @Override
+        public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+            CPEdgeFunction g = from(other);
+            return of(passThrough || g.passThrough,
+                    cp.meetValue(constant, g.constant));
+        }
+    }
+}
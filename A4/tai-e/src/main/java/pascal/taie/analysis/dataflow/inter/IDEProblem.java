@@ -0,0 +1,64 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+
+/**
+ * Template interface for defining IDE (inter-procedural distributive
+ * environment) problems, which are solved by {@link IDESolver}.
+ * <p>
+ * An IDE problem extends an {@link IFDSProblem} by associating a value
+ * of lattice {@code V} with each fact, and an {@link EdgeFunction}
+ * with each pair of facts related by a flow function.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values associated with facts
+ */
+public interface IDEProblem<Node, D, V> extends IFDSProblem<Node, D> {
+
+    /**
+     * @return the edge function along {@code edge} from {@code source}
+     * (a fact flowing into the edge) to {@code target} (one of the facts
+     * that the flow function of the edge maps {@code source} to).
+     */
+    EdgeFunction<V> getEdgeFunction(ICFGEdge<Node> edge, D source, D target);
+
+    /**
+     * @return the top value of the lattice, i.e., the identity of
+     * {@link #meet(Object, Object)}.
+     */
+    V topValue();
+
+    /**
+     * @return the bottom value of the lattice, which is associated
+     * with the facts at the entries of the entry methods.
+     */
+    V bottomValue();
+
+    /**
+     * Meets two values.
+     */
+    V meet(V v1, V v2);
+}
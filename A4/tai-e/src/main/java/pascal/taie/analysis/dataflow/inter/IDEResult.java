@@ -0,0 +1,64 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of IDE problems, i.e., the facts that hold at each node,
+ * and the values associated with the facts.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values associated with facts
+ */
+public class IDEResult<Node, D, V> extends IFDSResult<Node, D> {
+
+    private final Map<Node, Map<D, V>> values;
+
+    IDEResult(D zero, Map<Node, Map<D, V>> values) {
+        super(zero, getFacts(values));
+        this.values = values;
+    }
+
+    private static <Node, D, V> Map<Node, Set<D>> getFacts(
+            Map<Node, Map<D, V>> values) {
+        Map<Node, Set<D>> facts = Maps.newMap(values.size());
+        values.forEach((node, nodeValues) -> facts.put(node, nodeValues.keySet()));
+        return facts;
+    }
+
+    /**
+     * @return the value associated with {@code fact} at {@code node},
+     * or {@code null} if the fact does not hold at the node.
+     */
+    @Nullable
+    public V getValue(Node node, D fact) {
+        Map<D, V> nodeValues = values.get(node);
+        return nodeValues == null ? null : nodeValues.get(fact);
+    }
+}
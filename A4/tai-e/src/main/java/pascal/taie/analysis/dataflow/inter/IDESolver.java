@@ -0,0 +1,360 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Tabulation solver for IDE problems, which follows the algorithm in
+ * Sagiv, Reps and Horwitz, "Precise interprocedural dataflow analysis
+ * with applications to constant propagation" (TCS'96).
+ * <p>
+ * The solver works in two phases:
+ * <ol>
+ *     <li>It computes the <i>jump functions</i> of the <i>path edges</i>
+ *     (d1, n, d2), i.e., fact d1 at the entry of the method containing
+ *     node n reaches fact d2 at n, together with the
+ *     <i>end summaries</i> of the methods. A summary from a callee entry
+ *     to its exit is computed only once for each callee and fact pair,
+ *     and is then applied to all call sites of the callee.</li>
+ *     <li>It computes the values of the facts at the method entries
+ *     by propagating them along call edges, and then the values of
+ *     the facts at all nodes by applying the jump functions.</li>
+ * </ol>
+ *
+ * @param <Method> type of ICFG methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values associated with facts
+ */
+class IDESolver<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Jump functions of path edges. For each node n, maps d2 to the map
+     * from d1 to the function of path edge (d1, n, d2). Absent path edges
+     * represent the function that maps everything to the top value.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> jumpFns = Maps.newMap();
+
+    /**
+     * Map from (callee entry, d3) to the (call edge, d2) pairs, such that
+     * fact d2 at the call site is mapped to d3 at the callee entry.
+     */
+    private final MultiMap<Pair<Node, D>, Pair<CallEdge<Node>, D>> incoming = Maps.newMultiMap();
+
+    /**
+     * End summaries, i.e., map from (method entry, d1) to the facts d2,
+     * such that there exists path edge (d1, exit, d2).
+     */
+    private final MultiMap<Pair<Node, D>, D> endSummaries = Maps.newMultiMap();
+
+    /**
+     * Map from method entry to the call sites in the method.
+     */
+    private final MultiMap<Node, Node> callSites = Maps.newMultiMap();
+
+    /**
+     * Cache of the entry nodes of the methods containing given nodes.
+     */
+    private final Map<Node, Node> entries = Maps.newMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+    }
+
+    /**
+     * Solves the problem in both phases.
+     */
+    IDEResult<Node, D, V> solve() {
+        computeJumpFunctions();
+        return new IDEResult<>(problem.zeroValue(), computeValues());
+    }
+
+    /**
+     * Phase 1: computes the jump functions of path edges.
+     * This phase alone suffices for IFDS problems.
+     */
+    void computeJumpFunctions() {
+        D zero = problem.zeroValue();
+        EdgeFunction<V> id = EdgeFunction.identity();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            propagate(zero, entry, zero, id);
+            problem.getInitialFacts(entry).forEach(d ->
+                    propagate(zero, entry, d, id));
+        });
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> pathEdge = workList.poll();
+            Node node = pathEdge.node();
+            if (icfg.isCallSite(node)) {
+                processCall(pathEdge);
+            } else if (isExit(node)) {
+                processExit(pathEdge);
+            }
+            processNormal(pathEdge);
+        }
+    }
+
+    /**
+     * @return all path edges, as a map from nodes to the facts that
+     * reach the nodes (i.e., the targets of path edges).
+     */
+    Map<Node, Set<D>> getPathEdgeTargets() {
+        Map<Node, Set<D>> targets = Maps.newMap(jumpFns.size());
+        jumpFns.forEach((node, fns) -> targets.put(node, fns.keySet()));
+        return targets;
+    }
+
+    private boolean isExit(Node node) {
+        return node.equals(icfg.getExitOf(icfg.getContainingMethodOf(node)));
+    }
+
+    private Node getEntryOf(Node node) {
+        return entries.computeIfAbsent(node,
+                n -> icfg.getEntryOf(icfg.getContainingMethodOf(n)));
+    }
+
+    @Nullable
+    private EdgeFunction<V> getJumpFn(D d1, Node node, D d2) {
+        return getJumpFnsTo(node, d2).get(d1);
+    }
+
+    /**
+     * @return map from d1 to the jump function of path edge (d1, node, d2).
+     */
+    private Map<D, EdgeFunction<V>> getJumpFnsTo(Node node, D d2) {
+        return jumpFns.getOrDefault(node, Map.of()).getOrDefault(d2, Map.of());
+    }
+
+    /**
+     * Meets {@code fn} into the jump function of path edge (d1, node, d2),
+     * and adds the path edge to work-list if the function changes.
+     */
+    private void propagate(D d1, Node node, D d2, EdgeFunction<V> fn) {
+        EdgeFunction<V> oldFn = getJumpFn(d1, node, d2);
+        EdgeFunction<V> newFn = oldFn == null ? fn : oldFn.meetWith(fn);
+        if (!newFn.equals(oldFn)) {
+            jumpFns.computeIfAbsent(node, __ -> Maps.newMap())
+                    .computeIfAbsent(d2, __ -> Maps.newMap())
+                    .put(d1, newFn);
+            workList.add(new PathEdge<>(d1, node, d2));
+        }
+    }
+
+    private void processNormal(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.source();
+        Node node = pathEdge.node();
+        D d2 = pathEdge.target();
+        EdgeFunction<V> fn = getJumpFn(d1, node, d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+            Set<D> targets;
+            if (edge instanceof NormalEdge<Node> normalEdge) {
+                targets = problem.getNormalFlow(normalEdge, d2);
+            } else if (edge instanceof CallToReturnEdge<Node> c2rEdge) {
+                targets = problem.getCallToReturnFlow(c2rEdge, d2);
+            } else {
+                // call and return edges are handled by processCall()
+                // and processExit()
+                continue;
+            }
+            for (D d3 : targets) {
+                propagate(d1, edge.getTarget(), d3, fn.composeWith(
+                        problem.getEdgeFunction(edge, d2, d3)));
+            }
+        }
+    }
+
+    private void processCall(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.source();
+        Node callSite = pathEdge.node();
+        D d2 = pathEdge.target();
+        callSites.put(getEntryOf(callSite), callSite);
+        EdgeFunction<V> fn = getJumpFn(d1, callSite, d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (!(edge instanceof CallEdge<Node> callEdge)) {
+                continue;
+            }
+            Node calleeEntry = callEdge.getTarget();
+            for (D d3 : problem.getCallFlow(callEdge, d2)) {
+                propagate(d3, calleeEntry, d3, EdgeFunction.identity());
+                Pair<Node, D> calleeStart = new Pair<>(calleeEntry, d3);
+                incoming.put(calleeStart, new Pair<>(callEdge, d2));
+                // apply the existing end summaries of the callee
+                EdgeFunction<V> callFn = fn.composeWith(
+                        problem.getEdgeFunction(callEdge, d2, d3));
+                Node calleeExit = getExitOfEntry(calleeEntry);
+                for (D d4 : endSummaries.get(calleeStart)) {
+                    EdgeFunction<V> summaryFn = callFn.composeWith(
+                            getJumpFn(d3, calleeExit, d4));
+                    for (ICFGEdge<Node> exitEdge : icfg.getOutEdgesOf(calleeExit)) {
+                        if (exitEdge instanceof ReturnEdge<Node> returnEdge &&
+                                returnEdge.getCallSite().equals(callSite)) {
+                            applyReturn(d1, returnEdge, d4, summaryFn);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.source();
+        Node exit = pathEdge.node();
+        D d2 = pathEdge.target();
+        Pair<Node, D> start = new Pair<>(getEntryOf(exit), d1);
+        endSummaries.put(start, d2);
+        EdgeFunction<V> fn = getJumpFn(d1, exit, d2);
+        // apply the new (or updated) summary to the known callers
+        for (Pair<CallEdge<Node>, D> caller : incoming.get(start)) {
+            CallEdge<Node> callEdge = caller.first();
+            Node callSite = callEdge.getSource();
+            D callerD = caller.second();
+            EdgeFunction<V> summaryFn = problem
+                    .getEdgeFunction(callEdge, callerD, d1)
+                    .composeWith(fn);
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(exit)) {
+                if (edge instanceof ReturnEdge<Node> returnEdge &&
+                        returnEdge.getCallSite().equals(callSite)) {
+                    getJumpFnsTo(callSite, callerD).forEach((callerD1, callerFn) ->
+                            applyReturn(callerD1, returnEdge, d2,
+                                    callerFn.composeWith(summaryFn)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates fact {@code exitD} at callee exit along {@code returnEdge}
+     * to the return site, where {@code fn} is the function from fact
+     * {@code d1} at the entry of the caller to {@code exitD}.
+     */
+    private void applyReturn(D d1, ReturnEdge<Node> returnEdge,
+                             D exitD, EdgeFunction<V> fn) {
+        for (D d5 : problem.getReturnFlow(returnEdge, exitD)) {
+            propagate(d1, returnEdge.getTarget(), d5, fn.composeWith(
+                    problem.getEdgeFunction(returnEdge, exitD, d5)));
+        }
+    }
+
+    private Node getExitOfEntry(Node entry) {
+        return icfg.getExitOf(icfg.getContainingMethodOf(entry));
+    }
+
+    /**
+     * Phase 2: computes the values of facts at all nodes.
+     *
+     * @return map from nodes to the facts that reach them and their values.
+     */
+    private Map<Node, Map<D, V>> computeValues() {
+        // phase 2(i): propagates values to method entries along call edges
+        Map<Node, Map<D, V>> values = Maps.newMap(jumpFns.size());
+        Queue<Pair<Node, D>> entryWorkList = new ArrayDeque<>();
+        D zero = problem.zeroValue();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            if (setValue(values, entry, zero, problem.bottomValue())) {
+                entryWorkList.add(new Pair<>(entry, zero));
+            }
+        });
+        while (!entryWorkList.isEmpty()) {
+            Pair<Node, D> start = entryWorkList.poll();
+            D d1 = start.second();
+            V value = values.get(start.first()).get(d1);
+            for (Node callSite : callSites.get(start.first())) {
+                jumpFns.get(callSite).forEach((d2, fns) -> {
+                    EdgeFunction<V> fn = fns.get(d1);
+                    if (fn == null) {
+                        return;
+                    }
+                    V callSiteValue = fn.computeTarget(value);
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                        if (edge instanceof CallEdge<Node> callEdge) {
+                            for (D d3 : problem.getCallFlow(callEdge, d2)) {
+                                V entryValue = problem.getEdgeFunction(callEdge, d2, d3)
+                                        .computeTarget(callSiteValue);
+                                if (setValue(values, callEdge.getTarget(), d3, entryValue)) {
+                                    entryWorkList.add(new Pair<>(callEdge.getTarget(), d3));
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        // phase 2(ii): computes values at all nodes via jump functions
+        Map<Node, Map<D, V>> results = Maps.newMap(jumpFns.size());
+        jumpFns.forEach((node, fns) -> {
+            Map<D, V> entryValues = values.get(getEntryOf(node));
+            fns.forEach((d2, d1Fns) -> d1Fns.forEach((d1, fn) -> {
+                V entryValue = entryValues == null ? null : entryValues.get(d1);
+                setValue(results, node, d2, fn.computeTarget(
+                        entryValue == null ? problem.topValue() : entryValue));
+            }));
+        });
+        return results;
+    }
+
+    /**
+     * Meets {@code value} into the value of {@code fact} at {@code node}.
+     *
+     * @return true if the value changes.
+     */
+    private boolean setValue(Map<Node, Map<D, V>> values,
+                             Node node, D fact, V value) {
+        Map<D, V> factValues = values.computeIfAbsent(node, __ -> Maps.newMap());
+        V oldValue = factValues.get(fact);
+        V newValue = oldValue == null ? value : problem.meet(oldValue, value);
+        if (!newValue.equals(oldValue)) {
+            factValues.put(fact, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Path edge (d1, node, d2).
+     */
+    private record PathEdge<Node, D>(D source, Node node, D target) {
+    }
+}
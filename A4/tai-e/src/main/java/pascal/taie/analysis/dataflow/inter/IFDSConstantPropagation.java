@@ -0,0 +1,216 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of interprocedural copy-constant propagation for int
+ * values as an IFDS problem.
+ * <p>
+ * The facts are pairs (x, v), which mean that variable x may have value v
+ * (a constant or NAC) along some path. Thus, x is constant c at a node
+ * if (x, c) is the only pair of x that reaches the node. Different from
+ * {@link InterConstantPropagation}, only constants and copies are tracked,
+ * and the variables defined by other expressions are NAC. In exchange,
+ * the IFDS solver computes a summary for each callee and fact pair, and
+ * distinguishes the facts flowing from different call sites of a callee.
+ */
+public class IFDSConstantPropagation extends ProgramAnalysis {
+
+    public static final String ID = "ifds-constprop";
+
+    private final ConstantPropagation cp;
+
+    public IFDSConstantPropagation(AnalysisConfig config) {
+        super(config);
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+    }
+
+    @Override
+    public Object analyze() {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        IFDSResult<Stmt, VarValue> facts =
+                new IFDSSolver<>(new Problem(icfg), icfg).solve();
+        // converts the IFDS results to CPFacts
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt stmt : icfg) {
+            Set<VarValue> inFacts = facts.getFactsAt(stmt);
+            result.setInFact(stmt, toCPFact(inFacts));
+            if (icfg.isCallSite(stmt)) {
+                result.setOutFact(stmt, toCPFact(inFacts));
+            } else {
+                Set<VarValue> outFacts = Sets.newSet();
+                outFacts.addAll(transfer(stmt, VarValue.ZERO));
+                inFacts.forEach(fact -> outFacts.addAll(transfer(stmt, fact)));
+                result.setOutFact(stmt, toCPFact(outFacts));
+            }
+        }
+        return result;
+    }
+
+    private CPFact toCPFact(Set<VarValue> facts) {
+        CPFact fact = new CPFact();
+        for (VarValue varValue : facts) {
+            if (varValue != VarValue.ZERO) {
+                Var var = varValue.var();
+                fact.update(var, cp.meetValue(fact.get(var), varValue.value()));
+            }
+        }
+        return fact;
+    }
+
+    /**
+     * Transfer function of non-call nodes.
+     */
+    private static Set<VarValue> transfer(Stmt stmt, VarValue fact) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt) {
+            LValue lValue = defStmt.getLValue();
+            RValue rValue = defStmt.getRValue();
+            if (lValue instanceof Var lVar &&
+                    ConstantPropagation.canHoldInt(lVar)) {
+                if (fact == VarValue.ZERO) {
+                    if (rValue instanceof IntLiteral literal) {
+                        return Set.of(fact, new VarValue(lVar,
+                                Value.makeConstant(literal.getValue())));
+                    } else if (rValue instanceof Var) {
+                        // copies are handled by the facts of right-hand side
+                        return Set.of(fact);
+                    } else {
+                        return Set.of(fact, new VarValue(lVar, Value.getNAC()));
+                    }
+                } else if (fact.var().equals(lVar)) {
+                    // kill the old values of lVar, except for lVar = lVar
+                    return rValue.equals(lVar) ? Set.of(fact) : Set.of();
+                } else if (rValue.equals(fact.var())) {
+                    return Set.of(fact, new VarValue(lVar, fact.value()));
+                }
+            }
+        }
+        return Set.of(fact);
+    }
+
+    private static class Problem implements IFDSProblem<Stmt, VarValue> {
+
+        private final ICFG<JMethod, Stmt> icfg;
+
+        private Problem(ICFG<JMethod, Stmt> icfg) {
+            this.icfg = icfg;
+        }
+
+        @Override
+        public VarValue zeroValue() {
+            return VarValue.ZERO;
+        }
+
+        @Override
+        public Set<VarValue> getInitialFacts(Stmt entry) {
+            Set<VarValue> facts = Sets.newSet();
+            for (Var param : icfg.getContainingMethodOf(entry).getIR().getParams()) {
+                if (ConstantPropagation.canHoldInt(param)) {
+                    facts.add(new VarValue(param, Value.getNAC()));
+                }
+            }
+            return facts;
+        }
+
+        @Override
+        public Set<VarValue> getNormalFlow(NormalEdge<Stmt> edge, VarValue fact) {
+            return transfer(edge.getSource(), fact);
+        }
+
+        @Override
+        public Set<VarValue> getCallToReturnFlow(
+                CallToReturnEdge<Stmt> edge, VarValue fact) {
+            Var lVar = ((Invoke) edge.getSource()).getLValue();
+            // the value of lVar flows from the return edges
+            return fact != VarValue.ZERO && fact.var().equals(lVar) ?
+                    Set.of() : Set.of(fact);
+        }
+
+        @Override
+        public Set<VarValue> getCallFlow(CallEdge<Stmt> edge, VarValue fact) {
+            if (fact == VarValue.ZERO) {
+                return Set.of(fact);
+            }
+            Set<VarValue> facts = Sets.newSet();
+            List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+            List<Var> params = edge.getCallee().getIR().getParams();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i).equals(fact.var()) &&
+                        ConstantPropagation.canHoldInt(params.get(i))) {
+                    facts.add(new VarValue(params.get(i), fact.value()));
+                }
+            }
+            return facts;
+        }
+
+        @Override
+        public Set<VarValue> getReturnFlow(ReturnEdge<Stmt> edge, VarValue fact) {
+            if (fact == VarValue.ZERO) {
+                return Set.of(fact);
+            }
+            Var lVar = ((Invoke) edge.getCallSite()).getLValue();
+            if (lVar != null && ConstantPropagation.canHoldInt(lVar) &&
+                    edge.getReturnVars().contains(fact.var())) {
+                return Set.of(new VarValue(lVar, fact.value()));
+            }
+            return Set.of();
+        }
+    }
+
+    /**
+     * Fact (var, value) of copy-constant propagation.
+     */
+    private record VarValue(Var var, Value value) {
+
+        /**
+         * The zero value of the IFDS problem.
+         */
+        private static final VarValue ZERO = new VarValue(null, Value.getUndef());
+    }
+}
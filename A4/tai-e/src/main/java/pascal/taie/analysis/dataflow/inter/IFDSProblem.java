@@ -0,0 +1,82 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+import java.util.Set;
+
+/**
+ * Template interface for defining IFDS (inter-procedural, finite,
+ * distributive, subset) problems, which are solved by {@link IFDSSolver}.
+ * <p>
+ * A flow function maps a single fact flowing into the source of an ICFG
+ * edge to the facts that flow out of the edge. All flow functions must
+ * propagate {@link #zeroValue()} themselves, i.e., map the zero value
+ * to a set containing the zero value, and may generate new facts from it.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ */
+public interface IFDSProblem<Node, D> {
+
+    /**
+     * @return the zero value (often written as Λ or 0) of this problem,
+     * which holds at every reachable node.
+     */
+    D zeroValue();
+
+    /**
+     * @return the facts (besides the zero value) that hold at the entry
+     * node of an entry method.
+     */
+    default Set<D> getInitialFacts(Node entry) {
+        return Set.of();
+    }
+
+    /**
+     * Flow function for intra-procedural edges of non-call nodes.
+     */
+    Set<D> getNormalFlow(NormalEdge<Node> edge, D fact);
+
+    /**
+     * Flow function for the edges from call sites to their return sites,
+     * which typically passes the facts irrelevant to the callees.
+     */
+    Set<D> getCallToReturnFlow(CallToReturnEdge<Node> edge, D fact);
+
+    /**
+     * Flow function for the edges from call sites to callee entries,
+     * which typically maps arguments to parameters.
+     */
+    Set<D> getCallFlow(CallEdge<Node> edge, D fact);
+
+    /**
+     * Flow function for the edges from callee exits to return sites,
+     * which typically maps returned values to the receiving variables.
+     */
+    Set<D> getReturnFlow(ReturnEdge<Node> edge, D fact);
+}
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of IFDS problems, i.e., the facts that hold at each node.
+ * The zero value is not included in the results.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ */
+public class IFDSResult<Node, D> {
+
+    private final D zero;
+
+    private final Map<Node, ? extends Set<D>> facts;
+
+    IFDSResult(D zero, Map<Node, ? extends Set<D>> facts) {
+        this.zero = zero;
+        this.facts = facts;
+    }
+
+    /**
+     * @return the facts that hold at (i.e., flow into) the given node.
+     */
+    public Set<D> getFactsAt(Node node) {
+        Set<D> nodeFacts = facts.get(node);
+        if (nodeFacts == null) {
+            return Set.of();
+        }
+        Set<D> result = Sets.newSet(nodeFacts.size());
+        result.addAll(nodeFacts);
+        result.remove(zero);
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return true if the given node is reachable in the analysis,
+     * i.e., the zero value reaches the node.
+     */
+    public boolean isReachable(Node node) {
+        Set<D> nodeFacts = facts.get(node);
+        return nodeFacts != null && nodeFacts.contains(zero);
+    }
+}
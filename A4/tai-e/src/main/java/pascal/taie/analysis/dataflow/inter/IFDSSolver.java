@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+import java.util.Set;
+
+/**
+ * Tabulation solver for IFDS problems, which follows the algorithm in
+ * Reps, Horwitz and Sagiv, "Precise interprocedural dataflow analysis
+ * via graph reachability" (POPL'95).
+ * <p>
+ * An IFDS problem is solved as an IDE problem whose edge functions
+ * are all identity over the two-point lattice {@link Reachability}.
+ * As the value of every fact that holds at a node is then
+ * {@link Reachability#REACHABLE}, only the first phase (path edges and
+ * end summaries) of {@link IDESolver} is needed.
+ *
+ * @param <Method> type of ICFG methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ */
+class IFDSSolver<Method, Node, D> {
+
+    private final IFDSProblem<Node, D> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    IFDSSolver(IFDSProblem<Node, D> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+    }
+
+    IFDSResult<Node, D> solve() {
+        IDESolver<Method, Node, D, Reachability> solver =
+                new IDESolver<>(new IdentityProblem(), icfg);
+        solver.computeJumpFunctions();
+        return new IFDSResult<>(problem.zeroValue(), solver.getPathEdgeTargets());
+    }
+
+    /**
+     * The two-point lattice of IFDS problems, where a fact holds at a node
+     * iff its value is {@link #REACHABLE}.
+     */
+    private enum Reachability {
+
+        /**
+         * The bottom value, i.e., the fact holds.
+         */
+        REACHABLE,
+
+        /**
+         * The top value, i.e., the fact does not hold.
+         */
+        UNREACHABLE,
+    }
+
+    /**
+     * Wraps the IFDS problem as an IDE problem with identity edge functions.
+     */
+    private class IdentityProblem implements IDEProblem<Node, D, Reachability> {
+
+        @Override
+        public D zeroValue() {
+            return problem.zeroValue();
+        }
+
+        @Override
+        public Set<D> getInitialFacts(Node entry) {
+            return problem.getInitialFacts(entry);
+        }
+
+        @Override
+        public Set<D> getNormalFlow(NormalEdge<Node> edge, D fact) {
+            return problem.getNormalFlow(edge, fact);
+        }
+
+        @Override
+        public Set<D> getCallToReturnFlow(CallToReturnEdge<Node> edge, D fact) {
+            return problem.getCallToReturnFlow(edge, fact);
+        }
+
+        @Override
+        public Set<D> getCallFlow(CallEdge<Node> edge, D fact) {
+            return problem.getCallFlow(edge, fact);
+        }
+
+        @Override
+        public Set<D> getReturnFlow(ReturnEdge<Node> edge, D fact) {
+            return problem.getReturnFlow(edge, fact);
+        }
+
+        @Override
+        public EdgeFunction<Reachability> getEdgeFunction(
+                ICFGEdge<Node> edge, D source, D target) {
+            return EdgeFunction.identity();
+        }
+
+        @Override
+        public Reachability topValue() {
+            return Reachability.UNREACHABLE;
+        }
+
+        @Override
+        public Reachability bottomValue() {
+            return Reachability.REACHABLE;
+        }
+
+        @Override
+        public Reachability meet(Reachability v1, Reachability v2) {
+            return v1 == Reachability.REACHABLE || v2 == Reachability.REACHABLE ?
+                    Reachability.REACHABLE : Reachability.UNREACHABLE;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Taint analysis for local variables as an IFDS problem.
+ * <p>
+ * The return values of the calls to source methods are tainted, and the
+ * taints are propagated via copies, casts, arguments and return values.
+ * A taint flow is reported when a tainted variable is passed as an argument
+ * to a sink method. The source and sink methods are given by their
+ * signatures in options "sources" and "sinks". As the facts are local
+ * variables, the taints that flow through the heap are not tracked.
+ */
+public class IFDSTaintAnalysis extends ProgramAnalysis {
+
+    public static final String ID = "ifds-taint";
+
+    private final Set<String> sources;
+
+    private final Set<String> sinks;
+
+    private ICFG<JMethod, Stmt> icfg;
+
+    public IFDSTaintAnalysis(AnalysisConfig config) {
+        super(config);
+        sources = getSignatures("sources");
+        sinks = getSignatures("sinks");
+    }
+
+    private Set<String> getSignatures(String key) {
+        Set<String> signatures = Sets.newSet();
+        Object value = getOptions().get(key);
+        if (value instanceof List<?> list) {
+            list.forEach(sig -> signatures.add(normalize(sig.toString())));
+        } else if (value != null) {
+            signatures.add(normalize(value.toString()));
+        }
+        return signatures;
+    }
+
+    /**
+     * The options given in command line are converted to YAML by
+     * appending a space to each ':', e.g., {@code <A: void m()>} becomes
+     * {@code <A:  void m()>}, thus the white spaces are normalized.
+     */
+    private static String normalize(String signature) {
+        return signature.trim().replaceAll("\\s+", " ");
+    }
+
+    @Override
+    public Set<TaintFlow> analyze() {
+        icfg = World.get().getResult(ICFGBuilder.ID);
+        IFDSResult<Stmt, Taint> result =
+                new IFDSSolver<>(new Problem(), icfg).solve();
+        Set<TaintFlow> taintFlows = Sets.newHybridOrderedSet();
+        for (Stmt stmt : icfg) {
+            if (icfg.isCallSite(stmt) && isCallTo(stmt, sinks)) {
+                Invoke sink = (Invoke) stmt;
+                List<Var> args = sink.getInvokeExp().getArgs();
+                for (Taint taint : result.getFactsAt(sink)) {
+                    for (int i = 0; i < args.size(); ++i) {
+                        if (args.get(i).equals(taint.var())) {
+                            taintFlows.add(new TaintFlow(taint.source(), sink, i));
+                        }
+                    }
+                }
+            }
+        }
+        return taintFlows;
+    }
+
+    /**
+     * @return true if the call site calls any method in {@code methods}.
+     */
+    private boolean isCallTo(Stmt callSite, Set<String> methods) {
+        Invoke invoke = (Invoke) callSite;
+        return methods.contains(invoke.getMethodRef().toString()) ||
+                icfg.getCalleesOf(callSite)
+                        .stream()
+                        .anyMatch(callee -> methods.contains(callee.getSignature()));
+    }
+
+    private class Problem implements IFDSProblem<Stmt, Taint> {
+
+        @Override
+        public Taint zeroValue() {
+            return Taint.ZERO;
+        }
+
+        @Override
+        public Set<Taint> getNormalFlow(NormalEdge<Stmt> edge, Taint fact) {
+            if (fact != Taint.ZERO &&
+                    edge.getSource() instanceof DefinitionStmt<?, ?> defStmt &&
+                    defStmt.getLValue() instanceof Var lVar) {
+                RValue rValue = defStmt.getRValue();
+                if (rValue instanceof CastExp cast) {
+                    rValue = cast.getValue();
+                }
+                if (rValue.equals(fact.var())) {
+                    return Set.of(fact, new Taint(lVar, fact.source()));
+                } else if (lVar.equals(fact.var())) {
+                    return Set.of();
+                }
+            }
+            return Set.of(fact);
+        }
+
+        @Override
+        public Set<Taint> getCallToReturnFlow(CallToReturnEdge<Stmt> edge, Taint fact) {
+            Invoke invoke = (Invoke) edge.getSource();
+            Var lVar = invoke.getLValue();
+            if (fact == Taint.ZERO) {
+                return lVar != null && isCallTo(invoke, sources) ?
+                        Set.of(fact, new Taint(lVar, invoke)) : Set.of(fact);
+            }
+            // the taints of lVar flow from the return edges
+            return fact.var().equals(lVar) ? Set.of() : Set.of(fact);
+        }
+
+        @Override
+        public Set<Taint> getCallFlow(CallEdge<Stmt> edge, Taint fact) {
+            if (fact == Taint.ZERO) {
+                return Set.of(fact);
+            }
+            Set<Taint> facts = Sets.newSet();
+            InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+            JMethod callee = edge.getCallee();
+            List<Var> args = invokeExp.getArgs();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i).equals(fact.var())) {
+                    facts.add(new Taint(callee.getIR().getParam(i), fact.source()));
+                }
+            }
+            if (invokeExp instanceof InvokeInstanceExp instanceExp &&
+                    instanceExp.getBase().equals(fact.var()) &&
+                    callee.getIR().getThis() != null) {
+                facts.add(new Taint(callee.getIR().getThis(), fact.source()));
+            }
+            return facts;
+        }
+
+        @Override
+        public Set<Taint> getReturnFlow(ReturnEdge<Stmt> edge, Taint fact) {
+            if (fact == Taint.ZERO) {
+                return Set.of(fact);
+            }
+            Var lVar = ((Invoke) edge.getCallSite()).getLValue();
+            return lVar != null && edge.getReturnVars().contains(fact.var()) ?
+                    Set.of(new Taint(lVar, fact.source())) : Set.of();
+        }
+    }
+
+    /**
+     * Fact of taint analysis, i.e., variable {@code var} holds the taint
+     * returned by call site {@code source}.
+     */
+    private record Taint(Var var, Invoke source) {
+
+        /**
+         * The zero value of the IFDS problem.
+         */
+        private static final Taint ZERO = new Taint(null, null);
+    }
+
+    /**
+     * Represents a taint flow from the result of call site {@code source}
+     * to the {@code index}-th argument of call site {@code sink}.
+     */
+    public record TaintFlow(Invoke source, Invoke sink, int index) {
+
+        @Override
+        public String toString() {
+            return String.format("TaintFlow{%s -> %s/%d}", source, sink, index);
+        }
+    }
+}
@@ -22,9 +22,11 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
@@ -39,8 +41,6 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
-import java.util.List;
-
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -51,9 +51,52 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Whether computing the return values of callees per argument vector,
+     * which is context-sensitive, thus the results may be more precise.
+     */
+    private final boolean csSummary;
+
+    /**
+     * Whether solving the analysis sparsely over value-flow graph.
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether pruning dead variables from the facts.
+     */
+    private final boolean pruneDead;
+
+    private CalleeSummaries summaries;
+
+    private LiveVars liveVars;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        csSummary = getOptions().getBooleanOrDefault("cs-summary", false);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        pruneDead = getOptions().getBooleanOrDefault("prune-dead", false);
+    }
+
+    @Override
+    public Object analyze() {
+        if (sparse) {
+            icfg = World.get().getResult(ICFGBuilder.ID);
+            return new SparseCPSolver(icfg, cp).solve();
+        }
+        return super.analyze();
+    }
+
+    @Override
+    protected void initialize() {
+        if (csSummary) {
+            summaries = new CalleeSummaries(icfg, cp,
+                    World.get().getResult(CallGraphBuilder.ID));
+        }
+        if (pruneDead) {
+            liveVars = new LiveVars(icfg);
+        }
     }
 
     @Override
@@ -77,6 +120,29 @@ public class InterConstantPropagation extends
         cp.meetInto(fact, target);
     }
 
+    @Override
+    public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+        if (liveVars == null) {
+            return super.transferNode(stmt, in, out);
+        }
+        CPFact oldOut = out.copy();
+        super.transferNode(stmt, in, out);
+        LiveVars.prune(out, liveVars.getLiveOutVars(stmt));
+        return !out.equals(oldOut);
+    }
+
+    @Override
+    public CPFact transferEdge(ICFGEdge<Stmt> edge, CPFact out) {
+        CPFact fact = super.transferEdge(edge, out);
+        if (liveVars != null) {
+            if (fact == out) { // do not modify the out fact of the source
+                fact = out.copy();
+            }
+            LiveVars.prune(fact, liveVars.getLiveInVars(edge.getTarget()));
+        }
+        return fact;
+    }
+
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
@@ -118,14 +184,8 @@ public class InterConstantPropagation extends
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
-        CPFact inFact = newInitialFact();
-        Invoke callsite = (Invoke) edge.getSource();
-        List<Var> params = edge.getCallee().getIR().getParams();
-        List<Var> args = callsite.getInvokeExp().getArgs();
-        for (int i = 0; i < params.size(); i++) {
-            inFact.update(params.get(i), callSiteOut.get(args.get(i)));
-        }
-        return inFact;
+        return CalleeSummaries.projectArgs(
+                (Invoke) edge.getSource(), edge.getCallee(), callSiteOut);
     }
 
     @Override
@@ -134,6 +194,18 @@ public class InterConstantPropagation extends
         CPFact inFact = newInitialFact();
         Invoke callsite = (Invoke)edge.getCallSite();
         Var lVal = callsite.getLValue();
+        if (lVal != null && summaries != null) {
+            // use the summary of callee for the arguments of callsite
+            // if available, instead of the merged return values
+            JMethod callee = icfg.getContainingMethodOf(edge.getSource());
+            Value value = summaries.getReturnValue(callee,
+                    CalleeSummaries.projectArgs(callsite, callee,
+                            solver.getOutFact(callsite)));
+            if (value != null) {
+                inFact.update(lVal, value);
+                return inFact;
+            }
+        }
         if(lVal != null) {
             for(Var retVar : edge.getReturnVars()) {
                 inFact.update(lVal, cp.meetValue(returnOut.get(retVar), inFact.get(lVal)));
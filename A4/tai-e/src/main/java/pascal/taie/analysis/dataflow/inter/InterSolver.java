@@ -23,27 +23,89 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
-import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * The work-list holds each node at most once, and always yields the
+ * pending node that comes first in reverse post-order of the ICFG
+ * (starting from the entry methods), so that a node is normally
+ * processed after its predecessors. Initially, only the nodes that are
+ * reachable from the entry methods are seeded in that order; the other
+ * nodes of the reached methods (e.g., dead code) are appended after
+ * them, so that they still receive the same results as before. After
+ * that, a node is revisited only when the out fact of one of its
+ * predecessors changes.
+ * <p>
+ * The solver never queries all nodes of the ICFG up front, and queries
+ * the incoming edges of a node when the node is first processed, thus
+ * an ICFG whose edges are built on demand is not materialized as a whole.
  */
 class InterSolver<Method, Node, Fact> {
 
-    private final InterDataflowAnalysis<Node, Fact> analysis;
+    protected final InterDataflowAnalysis<Node, Fact> analysis;
 
-    private final ICFG<Method, Node> icfg;
+    protected final ICFG<Method, Node> icfg;
 
-    private DataflowResult<Node, Fact> result;
+    protected DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    /**
+     * ICFG nodes in the order of processing, i.e., the reachable nodes
+     * in reverse post-order followed by the unreachable ones of the
+     * reached methods.
+     */
+    protected List<Node> nodes;
+
+    /**
+     * Map from each ICFG node to its index in {@link #nodes}.
+     */
+    protected Map<Node, Integer> indexes;
+
+    /**
+     * Work-list of pending nodes, represented by their indexes in
+     * {@link #nodes}. The bit set eliminates duplicate entries, and
+     * {@link BitSet#nextSetBit(int)} yields the first pending node.
+     */
+    private BitSet workList;
+
+    /**
+     * Version stamps of the out facts, indexed by the indexes of nodes.
+     * The version of a node increases whenever its out fact changes.
+     */
+    private int[] versions;
+
+    /**
+     * Incoming edges of each node, indexed by the indexes of nodes.
+     * The edges of a node are queried when it is first processed.
+     */
+    private List<List<ICFGEdge<Node>>> inEdges;
+
+    /**
+     * For each node (indexed by the index of node) and each of its
+     * incoming edges, the stamp of the edge's source (and the call site
+     * for a return edge) when the edge was transferred last time.
+     */
+    private long[][] edgeStamps;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
@@ -58,33 +120,185 @@ class InterSolver<Method, Node, Fact> {
         return result;
     }
 
+    /**
+     * @return the current out fact of the given node. This is exposed for
+     * the analyses whose edge transfers need facts of other nodes.
+     */
+    Fact getOutFact(Node node) {
+        return result.getOutFact(node);
+    }
+
     private void initialize() {
-        // TODO - finish me
-        for(Node node : icfg) {
+        List<Node> entries = new ArrayList<>();
+        icfg.entryMethods().forEach(entryMethod ->
+                entries.add(icfg.getEntryOf(entryMethod)));
+        computeOrder(entries);
+        for (Node node : nodes) {
             result.setOutFact(node, analysis.newInitialFact());
             result.setInFact(node, analysis.newInitialFact());
         }
-        for(Method entryMethod : icfg.entryMethods().toList()) {
-            Node entry = icfg.getEntryOf(entryMethod);
+        for (Node entry : entries) {
             result.setOutFact(entry, analysis.newBoundaryFact(entry));
             result.setInFact(entry, analysis.newBoundaryFact(entry));
         }
+        versions = new int[nodes.size()];
+        inEdges = new ArrayList<>(Collections.nCopies(nodes.size(), null));
+        edgeStamps = new long[nodes.size()][];
     }
 
-    private void doSolve() {
-        // TODO - finish me
-        Queue<Node> workList = new ArrayDeque<>(icfg.getNodes());
-        while(!workList.isEmpty()) {
-            Node node = workList.poll();
-            Fact inFact = analysis.newInitialFact();
-            result.setInFact(node, inFact);
-            for(ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+    /**
+     * Numbers the ICFG nodes: the nodes reachable from {@code entries}
+     * are numbered in reverse post-order, and then the rest nodes of the
+     * methods containing the reachable nodes (e.g., dead code), and of the
+     * methods that are only called by the rest nodes, are numbered.
+     * The nodes are found by walking the ICFG edges, thus only the edges
+     * of the reached methods are queried.
+     */
+    private void computeOrder(List<Node> entries) {
+        indexes = Maps.newMap();
+        List<Node> postOrder = new ArrayList<>();
+        // iterative DFS, as call chains in real programs may be too
+        // deep for recursion
+        Set<Node> visited = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succIters = new ArrayDeque<>();
+        for (Node entry : entries) {
+            if (!visited.add(entry)) {
+                continue;
+            }
+            stack.push(entry);
+            succIters.push(icfg.getSuccsOf(entry).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> succIter = succIters.peek();
+                if (succIter.hasNext()) {
+                    Node succ = succIter.next();
+                    if (visited.add(succ)) {
+                        stack.push(succ);
+                        succIters.push(icfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postOrder.add(stack.pop());
+                    succIters.pop();
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        nodes = postOrder;
+        // the rest nodes of a method are connected to its numbered nodes
+        // by intra-procedural edges in either direction, and the rest
+        // call sites lead to the entries of their callees. The out edges
+        // of the reachable nodes have been walked by DFS.
+        Deque<Node> queue = new ArrayDeque<>();
+        int reachable = nodes.size();
+        for (int i = 0; i < reachable; ++i) {
+            walkInEdges(nodes.get(i), visited, queue);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                // return edges lead to the callers, which are numbered
+                // via their own nodes
+                if (!(edge instanceof ReturnEdge)) {
+                    addRestNode(edge.getTarget(), visited, queue);
+                }
+            }
+            walkInEdges(node, visited, queue);
+        }
+        for (int i = 0; i < nodes.size(); ++i) {
+            indexes.put(nodes.get(i), i);
+        }
+    }
+
+    private void walkInEdges(Node node, Set<Node> visited, Deque<Node> queue) {
+        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+            if (isIntraEdge(edge)) {
+                addRestNode(edge.getSource(), visited, queue);
+            }
+        }
+    }
+
+    private void addRestNode(Node node, Set<Node> visited, Deque<Node> queue) {
+        if (visited.add(node)) {
+            nodes.add(node);
+            queue.add(node);
+        }
+    }
+
+    private static boolean isIntraEdge(ICFGEdge<?> edge) {
+        return edge instanceof NormalEdge || edge instanceof CallToReturnEdge;
+    }
+
+    /**
+     * @return the incoming edges of the node at given index.
+     */
+    private List<ICFGEdge<Node>> getInEdges(int index) {
+        List<ICFGEdge<Node>> edges = inEdges.get(index);
+        if (edges == null) {
+            edges = List.copyOf(icfg.getInEdgesOf(nodes.get(index)));
+            inEdges.set(index, edges);
+            edgeStamps[index] = new long[edges.size()];
+            Arrays.fill(edgeStamps[index], -1);
+        }
+        return edges;
+    }
+
+    protected void doSolve() {
+        workList = new BitSet(nodes.size());
+        workList.set(0, nodes.size());
+        for (int i = workList.nextSetBit(0); i >= 0;
+             i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            if (processNode(i)) {
+                for (Node succ : icfg.getSuccsOf(nodes.get(i))) {
+                    workList.set(indexes.get(succ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets the incoming facts into the in fact of the node at given index,
+     * and then applies the node transfer function.
+     *
+     * @return true if the out fact of the node changes.
+     */
+    protected boolean processNode(int index) {
+        Node node = nodes.get(index);
+        // the out facts only move down the lattice during solving,
+        // thus it is safe to meet the incoming facts into the
+        // existing in fact instead of creating a new one per visit.
+        // For the same reason, the edges whose sources are unchanged
+        // since their last transfer contribute nothing new, and are skipped.
+        Fact inFact = result.getInFact(node);
+        List<ICFGEdge<Node>> edges = getInEdges(index);
+        long[] stamps = edgeStamps[index];
+        for (int i = 0; i < edges.size(); ++i) {
+            ICFGEdge<Node> edge = edges.get(i);
+            long stamp = getStamp(edge);
+            if (stamps[i] != stamp) {
+                stamps[i] = stamp;
                 Node pred = edge.getSource();
                 analysis.meetInto(analysis.transferEdge(edge, result.getOutFact(pred)), inFact);
             }
-            if(analysis.transferNode(node, inFact, result.getOutFact(node))) {
-                workList.addAll(icfg.getSuccsOf(node));
-            }
         }
+        if (analysis.transferNode(node, inFact, result.getOutFact(node))) {
+            ++versions[index];
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the stamp of the facts that the transfer of {@code edge}
+     * depends on. Besides the source of the edge, a return edge also
+     * depends on its call site, e.g., for the summaries of callees.
+     */
+    private long getStamp(ICFGEdge<Node> edge) {
+        int sourceVersion = versions[indexes.get(edge.getSource())];
+        if (edge instanceof ReturnEdge<Node> returnEdge) {
+            int callSiteVersion = versions[indexes.get(returnEdge.getCallSite())];
+            return ((long) sourceVersion << 32) | callSiteVersion;
+        }
+        return sourceVersion;
     }
 }
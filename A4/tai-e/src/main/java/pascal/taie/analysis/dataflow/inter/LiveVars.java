@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Live variables of each method, used to prune dead variables from the
+ * facts of inter-procedural constant propagation.
+ * <p>
+ * The liveness of a method is computed on demand by a backward
+ * work-list over its CFG. The return variables are regarded as live at
+ * the exit, as the return edges read them from the out fact of the exit.
+ * Similarly, the arguments of a call site are kept in its out fact, as
+ * the call edges and callee summaries read them from there.
+ */
+class LiveVars {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final Map<Stmt, Set<Var>> liveIn = Maps.newMap();
+
+    /**
+     * Variables kept in the out fact of each statement.
+     */
+    private final Map<Stmt, Set<Var>> liveOut = Maps.newMap();
+
+    LiveVars(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+    }
+
+    /**
+     * Removes the variables not in {@code live} from {@code fact}.
+     */
+    static void prune(CPFact fact, Set<Var> live) {
+        List.copyOf(fact.keySet()).forEach(var -> {
+            if (!live.contains(var)) {
+                fact.remove(var);
+            }
+        });
+    }
+
+    /**
+     * @return the variables that are live before given statement.
+     */
+    synchronized Set<Var> getLiveInVars(Stmt stmt) {
+        Set<Var> vars = liveIn.get(stmt);
+        if (vars == null) {
+            compute(icfg.getContainingMethodOf(stmt));
+            vars = liveIn.get(stmt);
+        }
+        return vars;
+    }
+
+    /**
+     * @return the variables that should be kept after given statement.
+     */
+    synchronized Set<Var> getLiveOutVars(Stmt stmt) {
+        Set<Var> vars = liveOut.get(stmt);
+        if (vars == null) {
+            compute(icfg.getContainingMethodOf(stmt));
+            vars = liveOut.get(stmt);
+        }
+        return vars;
+    }
+
+    private void compute(JMethod method) {
+        IR ir = method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Map<Stmt, Set<Var>> in = Maps.newMap();
+        for (Stmt stmt : cfg) {
+            in.put(stmt, Sets.newHybridSet());
+        }
+        in.get(cfg.getExit()).addAll(ir.getReturnVars());
+        Queue<Stmt> workList = new ArrayDeque<>(cfg.getNodes());
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            if (cfg.isExit(stmt)) {
+                continue;
+            }
+            Set<Var> newIn = Sets.newHybridSet();
+            cfg.getSuccsOf(stmt).forEach(succ -> newIn.addAll(in.get(succ)));
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    newIn.remove(var);
+                }
+            });
+            newIn.addAll(ValueFlowGraph.getUsedVars(stmt));
+            if (!newIn.equals(in.get(stmt))) {
+                in.put(stmt, newIn);
+                workList.addAll(cfg.getPredsOf(stmt));
+            }
+        }
+        for (Stmt stmt : cfg) {
+            Set<Var> out = Sets.newHybridSet();
+            cfg.getSuccsOf(stmt).forEach(succ -> out.addAll(in.get(succ)));
+            if (stmt instanceof Invoke || cfg.isExit(stmt)) {
+                out.addAll(in.get(stmt));
+            }
+            liveIn.put(stmt, in.get(stmt));
+            liveOut.put(stmt, out);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Inter-procedural solver that solves the strongly connected components
+ * (SCCs) of the call graph in parallel.
+ * <p>
+ * The solver condenses the call graph into a DAG of SCCs, and then solves
+ * the DAG in rounds. In each round, the SCCs are processed in topological
+ * order (callers before callees, as call edges carry most facts in forward
+ * analyses), and the SCCs that are independent of each other are solved
+ * concurrently on a fork-join pool. Each SCC is solved by the work-list
+ * algorithm of {@link InterSolver} until its local fixed-point. When a
+ * return edge changes the facts of a caller SCC that has finished in the
+ * current round, the caller is solved again in the next round. The solver
+ * stops when no SCC has pending nodes, so the results are the same as
+ * {@link InterSolver}.
+ * <p>
+ * The SCCs that run concurrently are not connected by any ICFG edge, and
+ * an SCC only modifies the facts of its own nodes, thus the facts need
+ * no synchronization. The only shared mutable state is the pending nodes
+ * of the SCCs that have not started, which are guarded by their owners.
+ */
+class SCCParallelInterSolver<Method, Node, Fact> extends InterSolver<Method, Node, Fact> {
+
+    private final Graph<Method> callGraph;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Component of each node, indexed by the index of node in {@link #nodes}.
+     */
+    private Component[] components;
+
+    /**
+     * Index of each node in its component, indexed by the index of node
+     * in {@link #nodes}.
+     */
+    private int[] localIndexes;
+
+    SCCParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                           ICFG<Method, Node> icfg,
+                           Graph<Method> callGraph, ForkJoinPool pool) {
+        super(analysis, icfg);
+        this.callGraph = callGraph;
+        this.pool = pool;
+    }
+
+    @Override
+    protected void doSolve() {
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        List<MergedNode<Method>> sccs = new TopoSorter<>(sccGraph).get();
+        Map<MergedNode<Method>, Component> sccComponents = Maps.newMap(sccs.size());
+        Map<Method, Component> methodComponents = Maps.newMap(callGraph.getNumberOfNodes());
+        for (MergedNode<Method> scc : sccs) {
+            Component component = new Component();
+            sccComponents.put(scc, component);
+            scc.getNodes().forEach(m -> methodComponents.put(m, component));
+        }
+        // nodes are added to components in the order of their indexes,
+        // so that each component keeps the processing order of InterSolver
+        components = new Component[nodes.size()];
+        localIndexes = new int[nodes.size()];
+        for (int i = 0; i < nodes.size(); ++i) {
+            Component component = methodComponents.get(
+                    icfg.getContainingMethodOf(nodes.get(i)));
+            components[i] = component;
+            localIndexes[i] = component.members.size();
+            component.members.add(i);
+        }
+        sccComponents.values().forEach(c -> c.pending.set(0, c.members.size()));
+        boolean pending;
+        do {
+            Map<MergedNode<Method>, CompletableFuture<Void>> futures =
+                    Maps.newMap(sccs.size());
+            for (MergedNode<Method> scc : sccs) {
+                CompletableFuture<?>[] preds = sccGraph.getPredsOf(scc)
+                        .stream()
+                        .filter(pred -> !pred.equals(scc))
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                Component component = sccComponents.get(scc);
+                futures.put(scc, CompletableFuture.allOf(preds)
+                        .thenRunAsync(() -> solve(component), pool));
+            }
+            CompletableFuture.allOf(futures.values()
+                    .toArray(CompletableFuture[]::new)).join();
+            pending = sccComponents.values()
+                    .stream()
+                    .anyMatch(c -> !c.pending.isEmpty());
+        } while (pending);
+    }
+
+    /**
+     * Solves the given component until its local fixed-point.
+     */
+    private void solve(Component component) {
+        BitSet pending = component.pending;
+        for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(0)) {
+            pending.clear(i);
+            int nodeIndex = component.members.get(i);
+            if (processNode(nodeIndex)) {
+                for (Node succ : icfg.getSuccsOf(nodes.get(nodeIndex))) {
+                    int index = indexes.get(succ);
+                    Component succComponent = components[index];
+                    if (succComponent == component) {
+                        pending.set(localIndexes[index]);
+                    } else {
+                        succComponent.addPending(localIndexes[index]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The ICFG nodes of the methods in an SCC of the call graph.
+     */
+    private static class Component {
+
+        /**
+         * Indexes (in {@link #nodes}) of the nodes in this component.
+         */
+        private final List<Integer> members = new ArrayList<>();
+
+        /**
+         * Pending nodes, represented by their indexes in {@link #members}.
+         */
+        private final BitSet pending = new BitSet();
+
+        /**
+         * Adds a pending node from another component. Different components
+         * may add pending nodes to this component concurrently.
+         */
+        private synchronized void addPending(int localIndex) {
+            pending.set(localIndex);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.inter.ValueFlowGraph.Def;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse solver for inter-procedural constant propagation, which
+ * propagates {@link Value}s of definitions over {@link ValueFlowGraph}
+ * instead of propagating {@link CPFact}s over the ICFG.
+ * <p>
+ * The value of a variable at a statement is the meet of the values of
+ * its definitions that reach the statement, thus the solver computes the
+ * same results as {@link InterSolver} on {@link InterConstantPropagation}.
+ * The facts of statements are not stored, but recovered on demand from
+ * the values of reaching definitions.
+ */
+class SparseCPSolver {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    private ValueFlowGraph graph;
+
+    private Set<JMethod> entryMethods;
+
+    /**
+     * Values of definitions, indexed by the ids of definitions.
+     */
+    private Value[] values;
+
+    SparseCPSolver(ICFG<JMethod, Stmt> icfg, ConstantPropagation cp) {
+        this.icfg = icfg;
+        this.cp = cp;
+    }
+
+    NodeResult<Stmt, CPFact> solve() {
+        graph = new ValueFlowGraph(icfg);
+        entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+        List<Def> defs = graph.getDefs();
+        values = new Value[defs.size()];
+        BitSet workList = new BitSet(defs.size());
+        for (Def def : defs) {
+            values[def.id()] = Value.getUndef();
+            workList.set(def.id());
+        }
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Def def = defs.get(i);
+            Value value = computeValue(def);
+            if (!value.equals(values[i])) {
+                values[i] = value;
+                graph.getSuccsOf(def).forEach(succ -> workList.set(succ.id()));
+            }
+        }
+        return new Result();
+    }
+
+    private Value computeValue(Def def) {
+        return switch (def.kind()) {
+            case PARAM -> {
+                // the same as the boundary fact and transferCallEdge()
+                JMethod method = def.method();
+                Value value = entryMethods.contains(method) ?
+                        Value.getNAC() : Value.getUndef();
+                int index = method.getIR().getParams().indexOf(def.var());
+                for (Stmt callSite : icfg.getCallersOf(method)) {
+                    Var arg = ((Invoke) callSite).getInvokeExp().getArg(index);
+                    value = cp.meetValue(value, getValue(callSite, arg));
+                }
+                yield value;
+            }
+            case STMT -> {
+                Stmt stmt = def.stmt();
+                CPFact in = new CPFact();
+                for (Var use : ValueFlowGraph.getUsedVars(stmt)) {
+                    in.update(use, getValue(stmt, use));
+                }
+                yield ConstantPropagation.evaluate(
+                        ((DefinitionStmt<?, ?>) stmt).getRValue(), in);
+            }
+            case CALL -> {
+                // the same as transferReturnEdge()
+                Value value = Value.getUndef();
+                for (JMethod callee : icfg.getCalleesOf(def.stmt())) {
+                    Stmt exit = icfg.getExitOf(callee);
+                    for (Var retVar : callee.getIR().getReturnVars()) {
+                        value = cp.meetValue(value, getValue(exit, retVar));
+                    }
+                }
+                yield value;
+            }
+        };
+    }
+
+    /**
+     * @return the value of {@code var} at (the entry of) {@code stmt}.
+     */
+    private Value getValue(Stmt stmt, Var var) {
+        Value value = Value.getUndef();
+        for (Def def : graph.getReachingDefs(stmt, var)) {
+            value = cp.meetValue(value, values[def.id()]);
+        }
+        return value;
+    }
+
+    /**
+     * Recovers the facts of statements on demand.
+     */
+    private class Result implements NodeResult<Stmt, CPFact> {
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact fact = new CPFact();
+            for (Def def : graph.getReachingDefs(stmt)) {
+                fact.update(def.var(), cp.meetValue(
+                        fact.get(def.var()), values[def.id()]));
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = getInFact(stmt);
+            Def def = graph.getDef(stmt);
+            // the result of a call takes effect at its return sites
+            if (def != null && def.kind() == ValueFlowGraph.Kind.STMT) {
+                fact.update(def.var(), values[def.id()]);
+            }
+            return fact;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse inter-procedural value-flow graph for int variables.
+ * <p>
+ * The nodes of the graph are definitions of int variables, i.e.,
+ * parameters (defined at method entries), assignments, and the results of
+ * calls. The edges connect each definition to the definitions whose values
+ * depend on it, which include intra-procedural def-use edges (computed by
+ * reaching definitions), argument-to-parameter edges, and return-to-result
+ * edges. The reaching definitions are kept in bit sets, so that the facts
+ * of any statement can be recovered on demand.
+ */
+class ValueFlowGraph {
+
+    enum Kind {
+        /**
+         * Definition of a parameter at method entry.
+         */
+        PARAM,
+        /**
+         * Definition by a non-call statement.
+         */
+        STMT,
+        /**
+         * Definition of the result of a call site, which takes effect
+         * at the return sites of the call site.
+         */
+        CALL,
+    }
+
+    /**
+     * A definition of int variable {@code var}.
+     *
+     * @param id     global index of this definition
+     * @param index  index of this definition in its method
+     * @param kind   kind of this definition
+     * @param var    the defined variable
+     * @param method the method containing this definition
+     * @param stmt   the defining statement, or {@code null} for parameters
+     */
+    record Def(int id, int index, Kind kind, Var var,
+               JMethod method, @Nullable Stmt stmt) {
+    }
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final List<Def> defs = new ArrayList<>();
+
+    private final Map<JMethod, MethodDefs> methodDefs = Maps.newMap();
+
+    private final MultiMap<Def, Def> succs = Maps.newMultiMap();
+
+    ValueFlowGraph(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        for (Stmt node : icfg) {
+            JMethod method = icfg.getContainingMethodOf(node);
+            if (!methodDefs.containsKey(method)) {
+                methodDefs.put(method, new MethodDefs(method));
+            }
+        }
+        methodDefs.values().forEach(this::addEdges);
+    }
+
+    List<Def> getDefs() {
+        return Collections.unmodifiableList(defs);
+    }
+
+    /**
+     * @return the definitions that depend on {@code def}.
+     */
+    Set<Def> getSuccsOf(Def def) {
+        return succs.get(def);
+    }
+
+    /**
+     * @return the definitions of {@code var} that reach (the entry of)
+     * {@code stmt}.
+     */
+    List<Def> getReachingDefs(Stmt stmt, Var var) {
+        return methodDefs.get(icfg.getContainingMethodOf(stmt))
+                .getReachingDefs(stmt, var);
+    }
+
+    /**
+     * @return all definitions that reach (the entry of) {@code stmt}.
+     */
+    List<Def> getReachingDefs(Stmt stmt) {
+        return methodDefs.get(icfg.getContainingMethodOf(stmt))
+                .getReachingDefs(stmt, null);
+    }
+
+    /**
+     * @return the definition by {@code stmt}, or {@code null}
+     * if {@code stmt} defines no int variable.
+     */
+    @Nullable
+    Def getDef(Stmt stmt) {
+        return methodDefs.get(icfg.getContainingMethodOf(stmt)).stmtDefs.get(stmt);
+    }
+
+    /**
+     * @return the definitions of the parameters of {@code method},
+     * indexed by the parameter indexes; the elements are {@code null}
+     * for the non-int parameters.
+     */
+    List<Def> getParamDefs(JMethod method) {
+        return methodDefs.get(method).paramDefs;
+    }
+
+    private void addEdges(MethodDefs mDefs) {
+        for (Def def : mDefs.defs) {
+            if (def.kind() == Kind.STMT) {
+                // def-use edges
+                Stmt stmt = def.stmt();
+                for (Var use : getUsedVars(stmt)) {
+                    getReachingDefs(stmt, use).forEach(d -> succs.put(d, def));
+                }
+            }
+        }
+        for (Stmt stmt : mDefs.method.getIR()) {
+            if (!icfg.isCallSite(stmt)) {
+                continue;
+            }
+            Invoke callSite = (Invoke) stmt;
+            Def callDef = mDefs.stmtDefs.get(callSite);
+            List<Var> args = callSite.getInvokeExp().getArgs();
+            for (JMethod callee : icfg.getCalleesOf(callSite)) {
+                // argument-to-parameter edges
+                List<Def> paramDefs = getParamDefs(callee);
+                for (int i = 0; i < args.size(); ++i) {
+                    Def paramDef = paramDefs.get(i);
+                    if (paramDef != null) {
+                        getReachingDefs(callSite, args.get(i))
+                                .forEach(d -> succs.put(d, paramDef));
+                    }
+                }
+                // return-to-result edges
+                if (callDef != null) {
+                    Stmt exit = icfg.getExitOf(callee);
+                    for (Var retVar : callee.getIR().getReturnVars()) {
+                        getReachingDefs(exit, retVar)
+                                .forEach(d -> succs.put(d, callDef));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variables used by {@code stmt}.
+     */
+    static Set<Var> getUsedVars(Stmt stmt) {
+        Set<Var> vars = Sets.newSmallSet();
+        stmt.getUses().forEach(use -> {
+            if (use instanceof Var var) {
+                vars.add(var);
+            }
+        });
+        return vars;
+    }
+
+    /**
+     * Definitions and reaching definitions in a method.
+     */
+    private class MethodDefs {
+
+        private final JMethod method;
+
+        private final List<Def> defs = new ArrayList<>();
+
+        private final List<Def> paramDefs = new ArrayList<>();
+
+        private final Map<Stmt, Def> stmtDefs = Maps.newMap();
+
+        /**
+         * Map from variable to the indexes of its definitions.
+         */
+        private final Map<Var, BitSet> varDefs = Maps.newMap();
+
+        /**
+         * Map from statement to the indexes of definitions reaching it.
+         */
+        private final Map<Stmt, BitSet> inDefs;
+
+        private MethodDefs(JMethod method) {
+            this.method = method;
+            IR ir = method.getIR();
+            for (Var param : ir.getParams()) {
+                paramDefs.add(ConstantPropagation.canHoldInt(param) ?
+                        newDef(Kind.PARAM, param, null) : null);
+            }
+            for (Stmt stmt : ir) {
+                if (stmt instanceof DefinitionStmt<?, ?> defStmt &&
+                        defStmt.getLValue() instanceof Var var &&
+                        ConstantPropagation.canHoldInt(var)) {
+                    stmtDefs.put(stmt, newDef(icfg.isCallSite(stmt) ?
+                            Kind.CALL : Kind.STMT, var, stmt));
+                }
+            }
+            inDefs = computeReachingDefs(ir.getResult(CFGBuilder.ID));
+        }
+
+        private Def newDef(Kind kind, Var var, @Nullable Stmt stmt) {
+            Def def = new Def(ValueFlowGraph.this.defs.size(), defs.size(),
+                    kind, var, method, stmt);
+            ValueFlowGraph.this.defs.add(def);
+            defs.add(def);
+            varDefs.computeIfAbsent(var, __ -> new BitSet()).set(def.index());
+            return def;
+        }
+
+        private Map<Stmt, BitSet> computeReachingDefs(CFG<Stmt> cfg) {
+            Map<Stmt, BitSet> in = Maps.newMap(cfg.getNumberOfNodes());
+            Map<Stmt, BitSet> out = Maps.newMap(cfg.getNumberOfNodes());
+            for (Stmt node : cfg) {
+                in.put(node, new BitSet());
+                out.put(node, new BitSet());
+            }
+            // parameters are defined at (the entry of) the entry node
+            BitSet params = new BitSet();
+            paramDefs.forEach(def -> {
+                if (def != null) {
+                    params.set(def.index());
+                }
+            });
+            in.get(cfg.getEntry()).or(params);
+            Queue<Stmt> workList = new ArrayDeque<>(cfg.getNodes());
+            while (!workList.isEmpty()) {
+                Stmt node = workList.poll();
+                BitSet nodeIn = in.get(node);
+                cfg.getPredsOf(node).forEach(pred -> nodeIn.or(out.get(pred)));
+                BitSet nodeOut = (BitSet) nodeIn.clone();
+                Def def = stmtDefs.get(node);
+                if (def != null) {
+                    nodeOut.andNot(varDefs.get(def.var()));
+                    nodeOut.set(def.index());
+                }
+                if (!nodeOut.equals(out.get(node))) {
+                    out.put(node, nodeOut);
+                    workList.addAll(cfg.getSuccsOf(node));
+                }
+            }
+            return in;
+        }
+
+        /**
+         * @return the definitions of {@code var} (all variables if
+         * {@code var} is {@code null}) that reach {@code stmt}.
+         */
+        private List<Def> getReachingDefs(Stmt stmt, @Nullable Var var) {
+            BitSet reaching = inDefs.get(stmt);
+            if (var != null) {
+                BitSet defsOfVar = varDefs.get(var);
+                if (defsOfVar == null) {
+                    return List.of();
+                }
+                reaching = (BitSet) reaching.clone();
+                reaching.and(defsOfVar);
+            }
+            List<Def> result = new ArrayList<>(reaching.cardinality());
+            reaching.stream().forEach(i -> result.add(defs.get(i)));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reconstructs a call graph from the binary file written by
+ * {@link CallGraphs#saveCallGraph(CallGraph, String)}, so that call sites
+ * need not be resolved again.
+ * <p>
+ * The file layout (all integers are big-endian) is:
+ * <pre>
+ * magic, version
+ * #methods, then for each method: signature length, UTF-8 signature
+ * #entry methods, then the method index of each entry method
+ * #edges, then for each edge: caller index, call-site index, callee index, kind
+ * </pre>
+ * where a method index refers to the method table of the file, and
+ * a call-site index is {@link Invoke#getIndex()} in the caller's IR.
+ * All methods in the method table are reachable methods.
+ */
+class CGLoader implements CGBuilder<Invoke, JMethod> {
+
+    static final int MAGIC = 0x54414347; // "TACG"
+
+    static final int VERSION = 1;
+
+    private final String input;
+
+    CGLoader(String input) {
+        this.input = input;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        if (input == null) {
+            throw new AnalysisException("No call graph file is given to load");
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(
+                Path.of(input), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read call graph file " + input, e);
+        }
+        return load(buffer);
+    }
+
+    private DefaultCallGraph load(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new AnalysisException(input + " is not a call graph file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new AnalysisException("Unsupported call graph file version: " + version);
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        // read method table
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JMethod[] methods = new JMethod[buffer.getInt()];
+        for (int i = 0; i < methods.length; ++i) {
+            String sig = readString(buffer);
+            JMethod method = hierarchy.getMethod(sig);
+            if (method == null) {
+                throw new AnalysisException("Failed to resolve " + sig +
+                        ", the call graph file " + input + " may be stale");
+            }
+            methods[i] = method;
+            callGraph.addReachableMethod(method);
+        }
+        // read entry methods
+        int nEntries = buffer.getInt();
+        for (int i = 0; i < nEntries; ++i) {
+            callGraph.addEntryMethod(methods[buffer.getInt()]);
+        }
+        // read call edges
+        CallKind[] kinds = CallKind.values();
+        int nEdges = buffer.getInt();
+        for (int i = 0; i < nEdges; ++i) {
+            JMethod caller = methods[buffer.getInt()];
+            int index = buffer.getInt();
+            JMethod callee = methods[buffer.getInt()];
+            CallKind kind = kinds[buffer.get()];
+            Stmt stmt = caller.getIR().getStmt(index);
+            if (!(stmt instanceof Invoke callSite)) {
+                throw new AnalysisException("Statement " + index + " of " +
+                        caller + " is not a call site, the call graph file " +
+                        input + " may be stale");
+            }
+            callGraph.addEdge(new Edge<>(kind, callSite, callee));
+        }
+        return callGraph;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -27,6 +27,8 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.*;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.ArrayDeque;
 import java.util.HashSet;
@@ -35,23 +37,58 @@ import java.util.Set;
 
 /**
  * Implementation of the CHA algorithm.
+ * <p>
+ * In incremental mode, the builder keeps track of the virtual and interface
+ * call sites in reachable methods. When a class is added into the class
+ * hierarchy after the call graph is built, only the call sites whose
+ * declaring classes are supertypes of the new class are re-resolved,
+ * and the resulting new call edges and reachable methods are added to
+ * the call graph, which notifies its {@link CallGraphListener}s.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    private final boolean incremental;
+
     private ClassHierarchy hierarchy;
 
+    private DefaultCallGraph callGraph;
+
+    /**
+     * Map from each class to the virtual and interface call sites
+     * whose method references are declared in the class.
+     * This map is maintained only in incremental mode.
+     */
+    private final MultiMap<JClass, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    CHABuilder(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        CallGraph<Invoke, JMethod> cg = buildCallGraph(World.get().getMainMethod());
+        if (incremental) {
+            hierarchy.addClassListener(this::onNewClass);
+        }
+        return cg;
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
-        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         // TODO - finish me
         Queue<JMethod> q = new ArrayDeque<>();
         q.add(entry);
+        addReachable(q);
+        return callGraph;
+    }
+
+    /**
+     * Adds the methods in the queue, and the methods transitively called
+     * by them, to the call graph.
+     */
+    private void addReachable(Queue<JMethod> q) {
         while(!q.isEmpty()) {
             JMethod method = q.poll();
             if(callGraph.contains(method)) {
@@ -59,13 +96,56 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             }
             callGraph.addReachableMethod(method);
             for(Invoke callsite: callGraph.getCallSitesIn(method)) {
+                if (incremental && (callsite.isVirtual() || callsite.isInterface())) {
+                    virtualCallSites.put(
+                            callsite.getMethodRef().getDeclaringClass(), callsite);
+                }
                 for(JMethod target : resolve(callsite)) {
                     callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callsite), callsite, target));
                     q.add(target);
                 }
             }
         }
-        return callGraph;
+    }
+
+    /**
+     * Updates the call graph for a class newly added into class hierarchy.
+     * The new class can only be the target of the virtual and interface
+     * call sites whose declaring classes are supertypes of the new class,
+     * thus we re-resolve such call sites against the new class.
+     */
+    private void onNewClass(JClass jclass) {
+        Queue<JMethod> q = new ArrayDeque<>();
+        for (JClass supertype : getSupertypesOf(jclass)) {
+            for (Invoke callsite : virtualCallSites.get(supertype)) {
+                JMethod target = dispatch(jclass,
+                        callsite.getMethodRef().getSubsignature());
+                if (target != null && callGraph.addEdge(new Edge<>(
+                        CallGraphs.getCallKind(callsite), callsite, target))) {
+                    q.add(target);
+                }
+            }
+        }
+        addReachable(q);
+    }
+
+    /**
+     * @return the given class and all its superclasses and superinterfaces.
+     */
+    private static Set<JClass> getSupertypesOf(JClass jclass) {
+        Set<JClass> supertypes = new HashSet<>();
+        Queue<JClass> q = new ArrayDeque<>();
+        q.add(jclass);
+        while (!q.isEmpty()) {
+            JClass c = q.poll();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    q.add(c.getSuperClass());
+                }
+                q.addAll(c.getInterfaces());
+            }
+        }
+        return supertypes;
     }
 
     /**
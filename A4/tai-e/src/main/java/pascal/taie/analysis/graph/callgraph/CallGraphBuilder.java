@@ -31,6 +31,7 @@ import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.graph.GraphWriter;
 
 import java.util.Collection;
 import java.util.Comparator;
@@ -57,13 +58,19 @@ public class CallGraphBuilder extends ProgramAnalysis {
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            builder = new CHABuilder(
+                    getOptions().getBooleanOrDefault("incremental", false));
+        } else if (algorithm.equals("load")) {
+            builder = new CGLoader(getOptions().getString("file"));
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            cg.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -73,10 +80,26 @@ public class CallGraphBuilder extends ProgramAnalysis {
         if (action == null) {
             return;
         }
+        // when the call graph is loaded, option "file" is the input file,
+        // thus we do not overwrite it and use the default output file
+        String file = algorithm.equals("load") ?
+                null : getOptions().getString("file");
         if (action.equals("dump")) {
-            logCallGraph(callGraph);
-            String file = getOptions().getString("file");
-            CallGraphs.dumpCallGraph(callGraph, file);
+            String format = getOptions().getString("format");
+            if (format == null) {
+                logCallGraph(callGraph);
+                CallGraphs.dumpCallGraph(callGraph, file);
+            } else {
+                // for huge call graphs, only log the numbers and
+                // write the graph in streaming manner
+                logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
+                logger.info("#call graph edges: {}", callGraph.getNumberOfEdges());
+                CallGraphs.writeCallGraph(callGraph, file,
+                        GraphWriter.Format.of(format),
+                        new MethodFilter(callGraph, getOptions()));
+            }
+        } else if (action.equals("save")) {
+            CallGraphs.saveCallGraph(callGraph, file);
         }
     }
 
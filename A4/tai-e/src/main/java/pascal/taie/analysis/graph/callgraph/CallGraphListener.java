@@ -0,0 +1,45 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+/**
+ * Interface for receiving the changes of a call graph, e.g., when the
+ * call graph is updated incrementally after new classes are added.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public interface CallGraphListener<CallSite, Method> {
+
+    /**
+     * Invoked when a new reachable method is added to the call graph.
+     */
+    default void onNewMethod(Method method) {
+    }
+
+    /**
+     * Invoked when a new call edge is added to the call graph.
+     */
+    default void onNewEdge(Edge<CallSite, Method> edge) {
+    }
+}
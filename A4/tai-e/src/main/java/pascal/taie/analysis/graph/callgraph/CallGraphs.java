@@ -38,8 +38,14 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.IDProvider;
 import pascal.taie.util.MapIDProvider;
 import pascal.taie.util.graph.DotDumper;
+import pascal.taie.util.graph.GraphWriter;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -96,6 +102,85 @@ public final class CallGraphs {
                 .dump(callGraph, output);
     }
 
+    /**
+     * Writes the methods accepted by {@code filter} and the call edges
+     * among them to file in a streaming manner, which is suitable
+     * for huge call graphs.
+     */
+    static void writeCallGraph(CallGraph<Invoke, JMethod> callGraph, String output,
+                               GraphWriter.Format format, MethodFilter filter) {
+        if (output == null) {
+            output = new File(Configs.getOutputDir(),
+                    callGraph.entryMethods()
+                            .map(m -> m.getDeclaringClass() + "." + m.getName())
+                            .collect(Collectors.joining("-")) + "-cg." +
+                            format.getExtension())
+                    .toString();
+        }
+        logger.info("Writing call graph to {} ...", output);
+        new GraphWriter<JMethod>(format)
+                .setNodeToString(JMethod::getSignature)
+                .setGlobalNodeAttributes(Map.of("shape", "box",
+                        "style", "filled", "color", "\".3 .2 1.0\""))
+                .setEdgeLabeler(e -> e instanceof MethodEdge<?, ?> edge &&
+                        edge.callSite() instanceof Invoke callSite ?
+                        IRPrinter.toString(callSite) : null)
+                .write(callGraph.reachableMethods().filter(filter),
+                        caller -> callGraph.callSitesIn(caller)
+                                .flatMap(cs -> callGraph.getCalleesOf(cs)
+                                        .stream()
+                                        .filter(filter)
+                                        .map(callee -> new MethodEdge<>(caller, callee, cs))),
+                        output);
+    }
+
+    /**
+     * Saves call graph to binary file, which can be loaded by {@link CGLoader}.
+     */
+    static void saveCallGraph(CallGraph<Invoke, JMethod> callGraph, String output) {
+        if (output == null) {
+            output = new File(Configs.getOutputDir(),
+                    callGraph.entryMethods()
+                            .map(m -> m.getDeclaringClass() + "." + m.getName())
+                            .collect(Collectors.joining("-")) + "-cg.bin")
+                    .toString();
+        }
+        logger.info("Saving call graph to {} ...", output);
+        IDProvider<JMethod> provider = new MapIDProvider<>();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.writeInt(CGLoader.MAGIC);
+            out.writeInt(CGLoader.VERSION);
+            // write method table
+            out.writeInt(callGraph.getNumberOfMethods());
+            for (JMethod method : (Iterable<JMethod>)
+                    callGraph.reachableMethods()::iterator) {
+                provider.getID(method);
+                byte[] sig = method.getSignature().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(sig.length);
+                out.write(sig);
+            }
+            // write entry methods
+            out.writeInt((int) callGraph.entryMethods().count());
+            for (JMethod entry : (Iterable<JMethod>)
+                    callGraph.entryMethods()::iterator) {
+                out.writeInt(provider.getID(entry));
+            }
+            // write call edges
+            out.writeInt(callGraph.getNumberOfEdges());
+            for (Edge<Invoke, JMethod> edge : (Iterable<Edge<Invoke, JMethod>>)
+                    callGraph.edges()::iterator) {
+                Invoke callSite = edge.getCallSite();
+                out.writeInt(provider.getID(callSite.getContainer()));
+                out.writeInt(callSite.getIndex());
+                out.writeInt(provider.getID(edge.getCallee()));
+                out.writeByte(edge.getKind().ordinal());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save call graph to " + output, e);
+        }
+    }
+
     public static String toString(Invoke invoke) {
         return invoke.getContainer() + IRPrinter.toString(invoke);
     }
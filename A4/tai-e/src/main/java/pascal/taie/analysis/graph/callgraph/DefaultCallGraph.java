@@ -26,6 +26,8 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -33,6 +35,16 @@ import java.util.Set;
  */
 public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
 
+    private final List<CallGraphListener<Invoke, JMethod>> listeners = new ArrayList<>();
+
+    /**
+     * Adds a listener which will be notified when new methods and
+     * call edges are added to this call graph.
+     */
+    public void addListener(CallGraphListener<Invoke, JMethod> listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Adds an entry method to this call graph.
      */
@@ -48,6 +60,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addReachableMethod(JMethod method) {
         if (reachableMethods.add(method)) {
+            unfreeze();
             if (!method.isAbstract()) {
                 method.getIR().forEach(stmt -> {
                     if (stmt instanceof Invoke invoke) {
@@ -56,6 +69,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
                     }
                 });
             }
+            listeners.forEach(l -> l.onNewMethod(method));
             return true;
         }
         return false;
@@ -70,7 +84,9 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addEdge(Edge<Invoke, JMethod> edge) {
         if (callSiteToEdges.put(edge.getCallSite(), edge)) {
+            unfreeze();
             calleeToEdges.put(edge.getCallee(), edge);
+            listeners.forEach(l -> l.onNewEdge(edge));
             return true;
         } else {
             return false;
@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects the methods of a call graph that should be dumped.
+ * The filter is configured by the following analysis options:
+ * <ul>
+ *     <li>{@code package}: only keep the methods declared in the classes
+ *     whose names start with the given prefix;</li>
+ *     <li>{@code depth}: only keep the methods that can be reached from
+ *     the entry methods via at most the given number of call edges;</li>
+ *     <li>{@code app-only}: only keep the methods of application classes.</li>
+ * </ul>
+ * Absent options do not filter out any methods.
+ */
+public class MethodFilter implements Predicate<JMethod> {
+
+    private final String packagePrefix;
+
+    private final boolean appOnly;
+
+    /**
+     * Methods within the given depth, or null if depth is unlimited.
+     */
+    private final Set<JMethod> withinDepth;
+
+    public MethodFilter(CallGraph<?, JMethod> callGraph,
+                        AnalysisOptions options) {
+        packagePrefix = options.getString("package");
+        appOnly = options.getBooleanOrDefault("app-only", false);
+        Object depth = options.get("depth");
+        withinDepth = depth == null ? null :
+                collectWithinDepth(callGraph, (Integer) depth);
+    }
+
+    /**
+     * @return true if this filter does not filter out any methods.
+     */
+    public boolean isEmpty() {
+        return packagePrefix == null && !appOnly && withinDepth == null;
+    }
+
+    @Override
+    public boolean test(JMethod method) {
+        if (appOnly && !method.getDeclaringClass().isApplication()) {
+            return false;
+        }
+        if (packagePrefix != null &&
+                !method.getDeclaringClass().getName().startsWith(packagePrefix)) {
+            return false;
+        }
+        return withinDepth == null || withinDepth.contains(method);
+    }
+
+    /**
+     * Traverses the call graph from entry methods in breadth-first order
+     * and collects the methods within given depth.
+     */
+    private static <CallSite> Set<JMethod> collectWithinDepth(
+            CallGraph<CallSite, JMethod> callGraph, int depth) {
+        Set<JMethod> visited = Sets.newSet();
+        List<JMethod> level = new ArrayList<>();
+        callGraph.entryMethods().forEach(entry -> {
+            if (visited.add(entry)) {
+                level.add(entry);
+            }
+        });
+        for (int d = 0; d < depth && !level.isEmpty(); ++d) {
+            List<JMethod> next = new ArrayList<>();
+            for (JMethod method : level) {
+                for (CallSite callSite : callGraph.getCallSitesIn(method)) {
+                    for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+                        if (visited.add(callee)) {
+                            next.add(callee);
+                        }
+                    }
+                }
+            }
+            level.clear();
+            level.addAll(next);
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphListener;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default implementation of ICFG, which materializes the edges of
+ * all reachable methods up front.
+ * <p>
+ * This ICFG also listens to the call graph, so that the methods and
+ * call edges added to the call graph afterwards (e.g., by incremental
+ * call graph construction) are added to this ICFG.
+ */
+class DefaultICFG extends AbstractICFG<JMethod, Stmt>
+        implements CallGraphListener<Invoke, JMethod> {
+
+    private static final Logger logger = LogManager.getLogger(DefaultICFG.class);
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = new LinkedHashMap<>();
+
+    DefaultICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+        callGraph.reachableMethods().forEach(this::addMethod);
+    }
+
+    /**
+     * Adds the nodes and intra-procedural edges of {@code method},
+     * and the call and return edges of its call sites.
+     */
+    private void addMethod(JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return;
+        }
+        cfg.forEach(stmt -> {
+            stmtToCFG.put(stmt, cfg);
+            boolean isCallSite = isCallSite(stmt);
+            cfg.getOutEdgesOf(stmt).forEach(edge -> addEdge(isCallSite ?
+                    new CallToReturnEdge<>(edge) : new NormalEdge<>(edge)));
+            if (isCallSite) {
+                getCalleesOf(stmt).forEach(callee ->
+                        addCallEdges(cfg, stmt, callee));
+            }
+        });
+    }
+
+    /**
+     * Adds the call edge from {@code callSite} to {@code callee},
+     * and the return edges from {@code callee} to the return sites.
+     */
+    private void addCallEdges(CFG<Stmt> callerCFG, Stmt callSite, JMethod callee) {
+        CFG<Stmt> calleeCFG = ICFGBuilder.getCFGOf(callee);
+        if (calleeCFG == null) {
+            logger.warn("CFG of {} is missing", callee);
+            return;
+        }
+        addEdge(new CallEdge<>(callSite, calleeCFG.getEntry(), callee));
+        // The exit node of CFG is mock, thus it is not a real return
+        // or excepting Stmt. We collect the return variables and
+        // exceptions from the real return and excepting Stmts,
+        // and attach them to the return edges.
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Return ret = (Return) edge.getSource();
+                if (ret.getValue() != null) {
+                    retVars.add(ret.getValue());
+                }
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        });
+        for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+            addEdge(new ReturnEdge<>(exit, retSite, callSite, retVars, exceptions));
+        }
+    }
+
+    private void addEdge(ICFGEdge<Stmt> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    @Override
+    public void onNewMethod(JMethod method) {
+        if (!method.isAbstract()) {
+            ICFGBuilder.buildCFGOf(method);
+            addMethod(method);
+        }
+    }
+
+    @Override
+    public void onNewEdge(pascal.taie.analysis.graph.callgraph.Edge<Invoke, JMethod> edge) {
+        if (!edge.getCallee().isAbstract()) {
+            // the callee may be new to the call graph, so its CFG is built
+            // before the call and return edges are connected to it
+            ICFGBuilder.buildCFGOf(edge.getCallee());
+        }
+        Invoke callSite = edge.getCallSite();
+        CFG<Stmt> callerCFG = stmtToCFG.get(callSite);
+        // if the caller has not been added, its call edges
+        // will be added together with the caller
+        if (callerCFG != null) {
+            addCallEdges(callerCFG, callSite, edge.getCallee());
+        }
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        return inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        return outEdges.get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return ICFGBuilder.getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return ICFGBuilder.getCFGOf(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return stmtToCFG.get(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return stmtToCFG.get(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return stmtToCFG.containsKey(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
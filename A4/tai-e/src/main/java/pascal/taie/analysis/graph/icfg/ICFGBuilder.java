@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraphListener;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.MethodFilter;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CFGDumper;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.graph.Edge;
+import pascal.taie.util.graph.GraphWriter;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class ICFGBuilder extends ProgramAnalysis {
+
+    public static final String ID = "icfg";
+
+    private static final Logger logger = LogManager.getLogger(ICFGBuilder.class);
+
+    private final boolean isDump;
+
+    public ICFGBuilder(AnalysisConfig config) {
+        super(config);
+        isDump = getOptions().getBoolean("dump");
+    }
+
+    @Override
+    public ICFG<JMethod, Stmt> analyze() {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ICFG<JMethod, Stmt> icfg;
+        if (getOptions().getBooleanOrDefault("lazy", false)) {
+            LazyICFG lazyICFG = new LazyICFG(callGraph);
+            listenToCallGraph(lazyICFG);
+            icfg = lazyICFG;
+        } else {
+            DefaultICFG defaultICFG = new DefaultICFG(callGraph);
+            listenToCallGraph(defaultICFG);
+            icfg = defaultICFG;
+        }
+        if (isDump) {
+            dumpICFG(icfg, callGraph);
+        }
+        return icfg;
+    }
+
+    /**
+     * Lets {@code listener} follow the methods and call edges added to
+     * the call graph after the ICFG is built, e.g., by incremental CHA.
+     */
+    private static void listenToCallGraph(
+            CallGraphListener<Invoke, JMethod> listener) {
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        if (callGraph instanceof DefaultCallGraph defaultCG) {
+            defaultCG.addListener(listener);
+        }
+    }
+
+    /**
+     * Writes the ICFG in a streaming manner. The nodes of the methods
+     * rejected by {@link MethodFilter}, and the edges to such nodes,
+     * are not written.
+     */
+    private void dumpICFG(ICFG<JMethod, Stmt> icfg,
+                          CallGraph<Stmt, JMethod> callGraph) {
+        String format = getOptions().getString("format");
+        GraphWriter.Format fmt = GraphWriter.Format.of(
+                format != null ? format : "dot");
+        MethodFilter filter = new MethodFilter(callGraph, getOptions());
+        String output = getOptions().getString("file");
+        if (output == null) {
+            output = new File(Configs.getOutputDir(),
+                    icfg.entryMethods()
+                            .map(m -> m.getDeclaringClass() + "." + m.getName())
+                            .collect(Collectors.joining("-")) + "-icfg." +
+                            fmt.getExtension())
+                    .toString();
+        }
+        logger.info("Dumping ICFG to {} ...", output);
+        new GraphWriter<Stmt>(fmt)
+                .setNodeToString(n -> toID(n, icfg))
+                .setNodeLabeler(n -> toLabel(n, icfg))
+                .setGlobalNodeAttributes(Map.of("shape", "box",
+                        "style", "filled", "color", "\".3 .2 1.0\""))
+                .setEdgeAttrs(ICFGBuilder::getEdgeAttrs)
+                .write(callGraph.reachableMethods()
+                                .filter(filter)
+                                .map(ICFGBuilder::getCFGOf)
+                                .filter(Objects::nonNull)
+                                .flatMap(cfg -> cfg.getNodes().stream()),
+                        n -> icfg.getOutEdgesOf(n)
+                                .stream()
+                                .filter(e -> filter.test(
+                                        icfg.getContainingMethodOf(e.getTarget()))),
+                        output);
+    }
+
+    private static String toID(Stmt stmt, ICFG<JMethod, Stmt> icfg) {
+        return icfg.getContainingMethodOf(stmt).getSignature() +
+                "/" + stmt.getIndex();
+    }
+
+    private static String toLabel(Stmt stmt, ICFG<JMethod, Stmt> icfg) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        CFG<Stmt> cfg = getCFGOf(method);
+        return CFGDumper.toLabel(stmt, cfg);
+    }
+
+    private static Map<String, String> getEdgeAttrs(Edge<Stmt> edge) {
+        if (edge instanceof CallEdge) {
+            return Map.of("style", "dashed", "color", "blue");
+        } else if (edge instanceof ReturnEdge) {
+            return Map.of("style", "dashed", "color", "red");
+        } else if (edge instanceof CallToReturnEdge) {
+            return Map.of("style", "dashed");
+        } else {
+            return Map.of();
+        }
+    }
+
+    static CFG<Stmt> getCFGOf(JMethod method) {
+        return method.getIR().getResult(CFGBuilder.ID);
+    }
+
+    /**
+     * Builds the CFG of given method and stores it in the IR of the method,
+     * if the CFG is absent. This is for the methods which are added to
+     * the call graph after the cfg analysis finishes, e.g., by incremental
+     * CHA, thus the cfg analysis has not run over them. Such CFGs are
+     * built with the default options of throw and cfg analyses.
+     *
+     * @return the CFG of given method.
+     */
+    static CFG<Stmt> buildCFGOf(JMethod method) {
+        IR ir = method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (cfg == null) {
+            if (ir.getResult(ThrowAnalysis.ID) == null) {
+                ThrowAnalysis throwAnalysis = new ThrowAnalysis(new AnalysisConfig(
+                        ThrowAnalysis.ID, "exception", "explicit", "algorithm", "intra"));
+                ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+            }
+            CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                    CFGBuilder.ID, "exception", "explicit", "dump", false));
+            cfg = cfgBuilder.analyze(ir);
+            ir.storeResult(CFGBuilder.ID, cfg);
+        }
+        return cfg;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphListener;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG whose edges are derived on demand from the CFG of each method
+ * and the call graph, instead of being materialized for the whole
+ * program up front. The in/out edges of the most recently queried
+ * nodes are kept in a small LRU cache, and the edges that are evicted,
+ * or outdated by the changes of the call graph, are derived again when
+ * they are queried next time.
+ * <p>
+ * A method is loaded, i.e., its nodes are mapped to it, when one of
+ * its nodes is first reached via an edge, or when it is queried via
+ * {@link #getEntryOf} and {@link #getExitOf}.
+ * The call sites are also located via the call graph. The other nodes
+ * of the unloaded methods are unknown to this ICFG, e.g.,
+ * {@link #hasNode} returns false for them, until their methods are
+ * loaded. Only {@link #getNodes()} loads all reachable methods.
+ * <p>
+ * The edges are the same as the ones of {@link DefaultICFG}.
+ * All queries are synchronized, so this ICFG can be shared by
+ * parallel solvers.
+ */
+class LazyICFG extends AbstractICFG<JMethod, Stmt>
+        implements CallGraphListener<Invoke, JMethod> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    /**
+     * Number of nodes whose in (or out) edges are cached.
+     */
+    private static final int CACHE_SIZE = 1 << 12;
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newMap();
+
+    private final Set<JMethod> loadedMethods = Sets.newSet();
+
+    private boolean allLoaded = false;
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> inEdges = newCache();
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> outEdges = newCache();
+
+    /**
+     * Return variables and exceptions of the exit of each method,
+     * carried by the return edges out of the exit.
+     */
+    private final Map<JMethod, ExitInfo> exitInfos = Maps.newMap();
+
+    private record ExitInfo(Set<Var> retVars, Set<ClassType> exceptions) {
+    }
+
+    LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    private static <K, V> Map<K, V> newCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Maps the nodes of given method to its CFG, if not done yet.
+     *
+     * @return the CFG of given method, or null if it is absent.
+     */
+    private CFG<Stmt> load(JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (loadedMethods.add(method)) {
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+            } else {
+                cfg.forEach(stmt -> stmtToCFG.put(stmt, cfg));
+            }
+        }
+        return cfg;
+    }
+
+    private void loadAll() {
+        if (!allLoaded) {
+            callGraph.reachableMethods().forEach(this::load);
+            allLoaded = true;
+        }
+    }
+
+    /**
+     * @return the CFG containing given node, or null if the node is not
+     * in the loaded methods and is not a call site in the call graph.
+     */
+    private CFG<Stmt> getCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg == null && stmt instanceof Invoke invoke) {
+            JMethod container = invoke.getContainer();
+            if (callGraph.contains(container) && load(container) != null) {
+                cfg = stmtToCFG.get(stmt);
+            }
+        }
+        return cfg;
+    }
+
+    /**
+     * @return the CFG of given method.
+     * @throws AnalysisException if the CFG is absent.
+     */
+    private CFG<Stmt> loadExisting(JMethod method) {
+        CFG<Stmt> cfg = load(method);
+        if (cfg == null) {
+            throw new AnalysisException("CFG of " + method + " is absent," +
+                    " try to fix this by adding option -scope=reachable");
+        }
+        return cfg;
+    }
+
+    @Override
+    public synchronized Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = inEdges.get(stmt);
+        if (edges == null) {
+            edges = Collections.unmodifiableSet(computeInEdgesOf(stmt));
+            inEdges.put(stmt, edges);
+        }
+        return edges;
+    }
+
+    private Set<ICFGEdge<Stmt>> computeInEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = Sets.newHybridSet();
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        if (cfg == null) {
+            return edges;
+        }
+        for (Edge<Stmt> edge : cfg.getInEdgesOf(stmt)) {
+            Stmt pred = edge.getSource();
+            if (isCallSite(pred)) {
+                edges.add(new CallToReturnEdge<>(edge));
+                // stmt is a return site of pred
+                for (JMethod callee : getCalleesOf(pred)) {
+                    CFG<Stmt> calleeCFG = load(callee);
+                    if (calleeCFG != null) {
+                        edges.add(newReturnEdge(calleeCFG, stmt, pred));
+                    }
+                }
+            } else {
+                edges.add(new NormalEdge<>(edge));
+            }
+        }
+        if (cfg.isEntry(stmt)) {
+            JMethod method = cfg.getMethod();
+            for (Stmt callSite : getCallersOf(method)) {
+                load(callGraph.getContainerOf(callSite));
+                edges.add(new CallEdge<>(callSite, stmt, method));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public synchronized Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = outEdges.get(stmt);
+        if (edges == null) {
+            edges = Collections.unmodifiableSet(computeOutEdgesOf(stmt));
+            outEdges.put(stmt, edges);
+        }
+        return edges;
+    }
+
+    private Set<ICFGEdge<Stmt>> computeOutEdgesOf(Stmt stmt) {
+        Set<ICFGEdge<Stmt>> edges = Sets.newHybridSet();
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        if (cfg == null) {
+            return edges;
+        }
+        boolean isCallSite = isCallSite(stmt);
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+            edges.add(isCallSite ?
+                    new CallToReturnEdge<>(edge) : new NormalEdge<>(edge));
+        }
+        if (isCallSite) {
+            for (JMethod callee : getCalleesOf(stmt)) {
+                CFG<Stmt> calleeCFG = load(callee);
+                if (calleeCFG == null) {
+                    logger.warn("CFG of {} is missing", callee);
+                } else {
+                    edges.add(new CallEdge<>(stmt, calleeCFG.getEntry(), callee));
+                }
+            }
+        }
+        if (cfg.isExit(stmt)) {
+            for (Stmt callSite : getCallersOf(cfg.getMethod())) {
+                CFG<Stmt> callerCFG = load(callGraph.getContainerOf(callSite));
+                if (callerCFG != null) {
+                    for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+                        edges.add(newReturnEdge(cfg, retSite, callSite));
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    private ReturnEdge<Stmt> newReturnEdge(
+            CFG<Stmt> calleeCFG, Stmt retSite, Stmt callSite) {
+        ExitInfo info = exitInfos.computeIfAbsent(calleeCFG.getMethod(), m -> {
+            Set<Var> retVars = Sets.newHybridSet();
+            Set<ClassType> exceptions = Sets.newHybridSet();
+            calleeCFG.getInEdgesOf(calleeCFG.getExit()).forEach(edge -> {
+                if (edge.getKind() == Edge.Kind.RETURN) {
+                    Return ret = (Return) edge.getSource();
+                    if (ret.getValue() != null) {
+                        retVars.add(ret.getValue());
+                    }
+                }
+                if (edge.isExceptional()) {
+                    exceptions.addAll(edge.getExceptions());
+                }
+            });
+            return new ExitInfo(retVars, exceptions);
+        });
+        return new ReturnEdge<>(calleeCFG.getExit(), retSite, callSite,
+                info.retVars(), info.exceptions());
+    }
+
+    @Override
+    public synchronized Stmt getEntryOf(JMethod method) {
+        return loadExisting(method).getEntry();
+    }
+
+    @Override
+    public synchronized Stmt getExitOf(JMethod method) {
+        return loadExisting(method).getExit();
+    }
+
+    @Override
+    public synchronized Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getKnownCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public synchronized JMethod getContainingMethodOf(Stmt stmt) {
+        return getKnownCFGOf(stmt).getMethod();
+    }
+
+    /**
+     * @return the CFG containing given node.
+     * @throws AnalysisException if the node is unknown to this ICFG.
+     */
+    private CFG<Stmt> getKnownCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        if (cfg == null) {
+            throw new AnalysisException(stmt + " is not in the loaded methods");
+        }
+        return cfg;
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public synchronized boolean hasNode(Stmt stmt) {
+        return getCFGOf(stmt) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public synchronized Set<Stmt> getNodes() {
+        loadAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+
+    @Override
+    public synchronized void onNewMethod(JMethod method) {
+        if (!method.isAbstract()) {
+            ICFGBuilder.buildCFGOf(method);
+        }
+    }
+
+    @Override
+    public synchronized void onNewEdge(
+            pascal.taie.analysis.graph.callgraph.Edge<Invoke, JMethod> edge) {
+        if (!edge.getCallee().isAbstract()) {
+            ICFGBuilder.buildCFGOf(edge.getCallee());
+        }
+        // drops the edges that are derived from the outdated call graph,
+        // and they will be derived again when queried
+        Invoke callSite = edge.getCallSite();
+        CFG<Stmt> callerCFG = stmtToCFG.get(callSite);
+        if (callerCFG != null) {
+            outEdges.remove(callSite);
+            callerCFG.getSuccsOf(callSite).forEach(inEdges::remove);
+        }
+        JMethod callee = edge.getCallee();
+        if (loadedMethods.contains(callee)) {
+            CFG<Stmt> calleeCFG = ICFGBuilder.getCFGOf(callee);
+            if (calleeCFG != null) {
+                inEdges.remove(calleeCFG.getEntry());
+                outEdges.remove(calleeCFG.getExit());
+            }
+        }
+    }
+}
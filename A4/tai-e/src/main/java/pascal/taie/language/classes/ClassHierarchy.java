@@ -26,6 +26,7 @@ import pascal.taie.ir.proginfo.MethodRef;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -50,6 +51,12 @@ public interface ClassHierarchy {
      */
     void addClass(JClass jclass);
 
+    /**
+     * Adds a listener which will be notified after a JClass is added
+     * into this class hierarchy.
+     */
+    void addClassListener(Consumer<JClass> listener);
+
     Stream<JClass> allClasses();
 
     Stream<JClass> applicationClasses();
@@ -85,6 +92,17 @@ public interface ClassHierarchy {
     @Nullable
     JClass getJREClass(String name);
 
+    /**
+     * Obtains a method by its signature.
+     *
+     * @param methodSig of the method
+     * @return the {@link JMethod} for signature if found;
+     * null if can't find the method.
+     * @throws pascal.taie.util.AnalysisException if signature is invalid.
+     */
+    @Nullable
+    JMethod getMethod(String methodSig);
+
     @Nullable JMethod resolveMethod(MethodRef methodRef);
 
     /**
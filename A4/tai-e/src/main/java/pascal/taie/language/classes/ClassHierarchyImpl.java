@@ -28,9 +28,12 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,6 +68,8 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    private final List<Consumer<JClass>> classListeners = new ArrayList<>();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -117,6 +122,12 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                         .add(jclass);
             }
         }
+        classListeners.forEach(l -> l.accept(jclass));
+    }
+
+    @Override
+    public void addClassListener(Consumer<JClass> listener) {
+        classListeners.add(listener);
     }
 
     @Override
@@ -160,6 +171,19 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public @Nullable
+    JMethod getMethod(String methodSig) {
+        String className = StringReps.getClassNameOf(methodSig);
+        JClass jclass = getClass(className);
+        if (jclass != null) {
+            Subsignature subsig = Subsignature.get(
+                    StringReps.getSubsignatureOf(methodSig));
+            return jclass.getDeclaredMethod(subsig);
+        }
+        return null;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -0,0 +1,286 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.ConfigException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes graphs to file in a streaming manner. Different from
+ * {@link DotDumper}, this writer does not require a whole {@link Graph},
+ * and it neither sorts nor keeps the nodes and edges it has written,
+ * so that it can dump huge graphs with small memory footprint.
+ * <p>
+ * Two formats are supported, i.e., DOT and JSON lines. In JSON-lines format,
+ * each line is a JSON object representing either a node
+ * ({@code {"node":id,"label":label}}) or an edge
+ * ({@code {"source":id,"target":id,"label":label,...}}),
+ * where the extra fields are the edge attributes.
+ *
+ * @param <N> type of nodes
+ */
+public class GraphWriter<N> {
+
+    private static final Logger logger = LogManager.getLogger(GraphWriter.class);
+
+    private static final String INDENT = "  ";
+
+    /**
+     * Size of the buffer (in chars) before flushing to file channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+
+        DOT, JSONL;
+
+        /**
+         * @return the format of given name, i.e., "dot" or "jsonl".
+         */
+        public static Format of(String name) {
+            return switch (name) {
+                case "dot" -> DOT;
+                case "jsonl" -> JSONL;
+                default -> throw new ConfigException("Unknown graph format: " + name);
+            };
+        }
+
+        /**
+         * @return file extension of this format.
+         */
+        public String getExtension() {
+            return this == DOT ? "dot" : "jsonl";
+        }
+    }
+
+    private final Format format;
+
+    private Writer out;
+
+    private Function<N, String> nodeToString = Object::toString;
+
+    private Function<N, String> nodeLabeler = null;
+
+    private Map<String, String> globalNodeAttrs = Map.of();
+
+    private Function<Edge<N>, String> edgeLabeler = null;
+
+    private Function<Edge<N>, Map<String, String>> edgeAttrs = e -> Map.of();
+
+    private long nodeCount;
+
+    private long edgeCount;
+
+    public GraphWriter(Format format) {
+        this.format = format;
+    }
+
+    public GraphWriter<N> setNodeToString(Function<N, String> nodeToString) {
+        this.nodeToString = nodeToString;
+        return this;
+    }
+
+    public GraphWriter<N> setNodeLabeler(Function<N, String> nodeLabeler) {
+        this.nodeLabeler = nodeLabeler;
+        return this;
+    }
+
+    /**
+     * Sets attributes shared by all nodes, which only take effect
+     * in DOT format.
+     */
+    public GraphWriter<N> setGlobalNodeAttributes(Map<String, String> globalNodeAttrs) {
+        this.globalNodeAttrs = globalNodeAttrs;
+        return this;
+    }
+
+    public GraphWriter<N> setEdgeLabeler(Function<Edge<N>, String> edgeLabeler) {
+        this.edgeLabeler = edgeLabeler;
+        return this;
+    }
+
+    public GraphWriter<N> setEdgeAttrs(Function<Edge<N>, Map<String, String>> edgeAttrs) {
+        this.edgeAttrs = edgeAttrs;
+        return this;
+    }
+
+    /**
+     * Writes given nodes and their outgoing edges to output file.
+     * Each node is written right before its outgoing edges, thus the nodes
+     * and edges are never held in memory all at once. If an edge
+     * should not appear in the output (e.g., its target is filtered out),
+     * then {@code outEdges} should not return it.
+     *
+     * @param nodes    the nodes to be written
+     * @param outEdges function that gives the outgoing edges of each node
+     * @param output   path of output file
+     */
+    public void write(Stream<N> nodes,
+                      Function<N, Stream<? extends Edge<N>>> outEdges,
+                      String output) {
+        nodeCount = 0;
+        edgeCount = 0;
+        try (Writer writer = new BufferedWriter(Channels.newWriter(
+                FileChannel.open(Path.of(output), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE),
+                StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            out = writer;
+            writeHeader();
+            for (N node : (Iterable<N>) nodes::iterator) {
+                writeNode(node);
+                for (Edge<N> edge : (Iterable<Edge<N>>)
+                        outEdges.apply(node).map(e -> (Edge<N>) e)::iterator) {
+                    writeEdge(edge);
+                }
+            }
+            writeFooter();
+        } catch (IOException e) {
+            logger.warn("Failed to write graph to {}, caused by {}", output, e);
+        } finally {
+            out = null;
+        }
+        logger.info("Written {} nodes and {} edges to {}",
+                nodeCount, edgeCount, output);
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == Format.DOT) {
+            out.write("digraph G {\n");
+            if (!globalNodeAttrs.isEmpty()) {
+                out.write(INDENT + "node [");
+                writeDotAttributes(globalNodeAttrs);
+                out.write("];\n");
+            }
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        if (format == Format.DOT) {
+            out.write("}\n");
+        }
+    }
+
+    private void writeNode(N node) throws IOException {
+        ++nodeCount;
+        String label = nodeLabeler == null ? null : nodeLabeler.apply(node);
+        if (format == Format.DOT) {
+            out.write(INDENT);
+            out.write(quote(nodeToString.apply(node)));
+            if (label != null) {
+                out.write(" [label=" + quote(label) + "]");
+            }
+            out.write(";\n");
+        } else {
+            out.write("{\"node\":");
+            out.write(quote(nodeToString.apply(node)));
+            if (label != null) {
+                out.write(",\"label\":" + quote(label));
+            }
+            out.write("}\n");
+        }
+    }
+
+    private void writeEdge(Edge<N> edge) throws IOException {
+        ++edgeCount;
+        String label = edgeLabeler == null ? null : edgeLabeler.apply(edge);
+        Map<String, String> attrs = edgeAttrs.apply(edge);
+        String source = quote(nodeToString.apply(edge.getSource()));
+        String target = quote(nodeToString.apply(edge.getTarget()));
+        if (format == Format.DOT) {
+            out.write(INDENT + source + " -> " + target);
+            if (label != null || !attrs.isEmpty()) {
+                out.write(" [");
+                if (label != null) {
+                    out.write("label=" + quote(label));
+                    if (!attrs.isEmpty()) {
+                        out.write(',');
+                    }
+                }
+                writeDotAttributes(attrs);
+                out.write(']');
+            }
+            out.write(";\n");
+        } else {
+            out.write("{\"source\":" + source + ",\"target\":" + target);
+            if (label != null) {
+                out.write(",\"label\":" + quote(label));
+            }
+            for (var attr : attrs.entrySet()) {
+                out.write(',' + quote(attr.getKey()) + ':' + quote(attr.getValue()));
+            }
+            out.write("}\n");
+        }
+    }
+
+    private void writeDotAttributes(Map<String, String> attrs) throws IOException {
+        boolean first = true;
+        for (var attr : attrs.entrySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.write(attr.getKey() + '=' + attr.getValue());
+        }
+    }
+
+    /**
+     * Quotes and escapes given string, the result is both a valid
+     * DOT ID and a valid JSON string.
+     */
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
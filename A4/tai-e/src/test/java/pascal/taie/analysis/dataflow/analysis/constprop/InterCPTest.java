@@ -26,13 +26,25 @@ import org.junit.Test;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
 
+import java.util.List;
+
 public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
+    private static final String OPTIONS = "edge-refine:false;alias-aware:false";
+
     void test(String inputClass) {
+        test(inputClass, "");
+    }
+
+    /**
+     * Runs the test with additional options, e.g., ";parallel:true",
+     * which should not change the results.
+     */
+    void test(String inputClass, String opts) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                OPTIONS + opts, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -57,4 +69,45 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testCSSummary() {
+        String opts = ";cs-summary:true";
+        test("Example", opts);
+        test("Reference", opts);
+        // the summary of getFibonacci(5) is 5 until it is invalidated by
+        // the summary of the recursive calls getFibonacci(NAC), thus z is NAC
+        test("Fibonacci", opts);
+        // the summaries of foo() distinguish its calls with different
+        // arguments, thus z and t are constants
+        Tests.testVariant("MultiIntArgs", CLASS_PATH, InterConstantPropagation.ID,
+                "cs-summary", OPTIONS + opts, "-a", "cg=algorithm:cha");
+    }
+
+    @Test
+    public void testParallel() {
+        String opts = ";parallel:true";
+        test("Example", opts);
+        test("Reference", opts);
+        test("Fibonacci", opts);
+        test("MultiIntArgs", opts);
+    }
+
+    @Test
+    public void testSparse() {
+        String opts = ";sparse:true";
+        test("Example", opts);
+        test("Reference", opts);
+        test("Fibonacci", opts);
+        test("MultiIntArgs", opts);
+    }
+
+    @Test
+    public void testLazyICFG() {
+        for (String inputClass : List.of(
+                "Example", "Reference", "Fibonacci", "MultiIntArgs")) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    OPTIONS, "-a", "cg=algorithm:cha", "-a", "icfg=lazy:true");
+        }
+    }
 }
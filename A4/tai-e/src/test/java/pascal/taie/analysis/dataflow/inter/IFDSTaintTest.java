@@ -0,0 +1,57 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.inter.IFDSTaintAnalysis.TaintFlow;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class IFDSTaintTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/taint";
+
+    @Test
+    public void testTaint() {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "Taint",
+                "-a", "cg=algorithm:cha",
+                "-a", IFDSTaintAnalysis.ID + "=" +
+                "sources:['<Taint: java.lang.String source()>'];" +
+                "sinks:['<Taint: void sink(java.lang.String)>']"
+        });
+        Set<TaintFlow> taintFlows = World.get().getResult(IFDSTaintAnalysis.ID);
+        // the taint flows to the sinks at lines 6 and 10, but not line 8
+        Assert.assertEquals(Set.of(6, 10), taintFlows.stream()
+                .map(flow -> flow.sink().getLineNumber())
+                .collect(Collectors.toSet()));
+        taintFlows.forEach(flow -> {
+            Assert.assertEquals(4, flow.source().getLineNumber());
+            Assert.assertEquals(0, flow.index());
+        });
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+public class InterSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    void test(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha");
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> expected =
+                World.get().getResult(InterConstantPropagation.ID);
+        CountingCP analysis = new CountingCP();
+        @SuppressWarnings("unchecked")
+        DataflowResult<Stmt, CPFact> result =
+                (DataflowResult<Stmt, CPFact>) analysis.analyze();
+        for (Stmt stmt : icfg) {
+            Assert.assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+        }
+        // each edge is transferred once at the beginning, and after that,
+        // only when the out fact of its source (or call site) changes
+        analysis.transfers.forEach((edge, count) -> {
+            int bound = 1 + analysis.getChanges(edge.getSource());
+            if (edge instanceof ReturnEdge<Stmt> returnEdge) {
+                bound += analysis.getChanges(returnEdge.getCallSite());
+            }
+            Assert.assertTrue(edge + " is transferred " + count + " times",
+                    count <= bound);
+        });
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+
+    /**
+     * Counts the transfers of edges and the changes of out facts.
+     */
+    private static class CountingCP extends InterConstantPropagation {
+
+        private final Map<ICFGEdge<Stmt>, Integer> transfers = Maps.newMap();
+
+        private final Map<Stmt, Integer> changes = Maps.newMap();
+
+        private CountingCP() {
+            super(new AnalysisConfig(InterConstantPropagation.ID));
+        }
+
+        private int getChanges(Stmt stmt) {
+            return changes.getOrDefault(stmt, 0);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            boolean changed = super.transferNode(stmt, in, out);
+            if (changed) {
+                changes.merge(stmt, 1, Integer::sum);
+            }
+            return changed;
+        }
+
+        @Override
+        public CPFact transferEdge(ICFGEdge<Stmt> edge, CPFact out) {
+            transfers.merge(edge, 1, Integer::sum);
+            return super.transferEdge(edge, out);
+        }
+    }
+}
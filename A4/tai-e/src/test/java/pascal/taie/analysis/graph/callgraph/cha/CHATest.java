@@ -22,8 +22,41 @@
 
 package pascal.taie.analysis.graph.callgraph.cha;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.AbstractCallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class CHATest {
     
@@ -50,4 +83,319 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testSaveAndLoad() {
+        String file = "build/VirtualCall-cg.bin";
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;action:save;file:" + file);
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:load;file:" + file);
+    }
+
+    @Test
+    public void testIncremental() {
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;incremental:true", "-a", ICFGBuilder.ID);
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        Invoke callSite = callGraph.callSitesIn(World.get().getMainMethod())
+                .filter(Invoke::isVirtual)
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals(3, callGraph.getCalleesOf(callSite).size());
+        // add class F extends B { void foo() { } } after the call graph is
+        // built, and reuse the body of D.foo() for F.foo()
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass b = hierarchy.getClass("B");
+        JMethod dFoo = hierarchy.getClass("D")
+                .getDeclaredMethod(Subsignature.get("void foo()"));
+        JClass f = new JClass(b.getClassLoader(), "F");
+        JMethod fFoo = new JMethod(f, dFoo.getName(), dFoo.getModifiers(),
+                dFoo.getParamTypes(), dFoo.getReturnType(), dFoo.getExceptions(),
+                AnnotationHolder.emptyHolder(), null, dFoo.getMethodSource());
+        f.build(new SubclassBuilder(f, b, fFoo));
+        hierarchy.addClass(f);
+        // the new call edge is added to both call graph and ICFG
+        Set<JMethod> callees = callGraph.getCalleesOf(callSite);
+        Assert.assertEquals(4, callees.size());
+        Assert.assertTrue(callees.contains(fFoo));
+        Assert.assertTrue(callGraph.contains(fFoo));
+        Assert.assertTrue(icfg.getOutEdgesOf(callSite).stream().anyMatch(e ->
+                e instanceof CallEdge<Stmt> call && call.getCallee().equals(fFoo)));
+        Assert.assertTrue(icfg.hasNode(icfg.getEntryOf(fFoo)));
+    }
+
+    @Test
+    public void testFreeze() {
+        test("VirtualCall");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Assert.assertTrue(((AbstractCallGraph<Invoke, JMethod>) callGraph).isFrozen());
+        // copy the frozen call graph into an unfrozen one
+        DefaultCallGraph copy = new DefaultCallGraph();
+        callGraph.entryMethods().forEach(copy::addEntryMethod);
+        callGraph.reachableMethods().forEach(copy::addReachableMethod);
+        callGraph.edges().forEach(copy::addEdge);
+        Assert.assertFalse(copy.isFrozen());
+        assertSameQueries(callGraph, copy);
+        copy.freeze();
+        Assert.assertTrue(copy.isFrozen());
+        assertSameQueries(callGraph, copy);
+        // adding an edge unfreezes the call graph
+        JMethod main = World.get().getMainMethod();
+        Invoke callSite = copy.callSitesIn(main)
+                .filter(Invoke::isVirtual)
+                .findFirst()
+                .orElseThrow();
+        JMethod eFoo = World.get().getClassHierarchy().getClass("E")
+                .getDeclaredMethod(Subsignature.get("void foo()"));
+        Assert.assertFalse(copy.getSuccsOf(main).contains(eFoo));
+        Assert.assertTrue(copy.addEdge(new Edge<>(CallKind.VIRTUAL, callSite, eFoo)));
+        Assert.assertFalse(copy.isFrozen());
+        Assert.assertTrue(copy.getSuccsOf(main).contains(eFoo));
+        Assert.assertTrue(copy.getPredsOf(eFoo).contains(main));
+        copy.freeze();
+        Assert.assertTrue(copy.getSuccsOf(main).contains(eFoo));
+        Assert.assertTrue(copy.getPredsOf(eFoo).contains(main));
+        Assert.assertTrue(copy.hasEdge(main, eFoo));
+        Assert.assertEquals(1, copy.getInEdgesOf(eFoo).size());
+        // adding a reachable method unfreezes the call graph
+        Assert.assertTrue(copy.addReachableMethod(eFoo));
+        Assert.assertFalse(copy.isFrozen());
+        // adding existing edges and methods does not
+        copy.freeze();
+        Assert.assertFalse(copy.addReachableMethod(eFoo));
+        Assert.assertFalse(copy.addEdge(new Edge<>(CallKind.VIRTUAL, callSite, eFoo)));
+        Assert.assertTrue(copy.isFrozen());
+    }
+
+    /**
+     * Asserts that the method-level queries on given call graphs
+     * give the same results.
+     */
+    private static void assertSameQueries(CallGraph<Invoke, JMethod> expected,
+                                          CallGraph<Invoke, JMethod> actual) {
+        Assert.assertEquals(expected.reachableMethods().collect(Collectors.toSet()),
+                actual.reachableMethods().collect(Collectors.toSet()));
+        expected.reachableMethods().forEach(m -> {
+            Assert.assertEquals(expected.getSuccsOf(m), actual.getSuccsOf(m));
+            Assert.assertEquals(expected.getPredsOf(m), actual.getPredsOf(m));
+            Assert.assertEquals(expected.getCalleesOfM(m), actual.getCalleesOfM(m));
+            Assert.assertEquals(expected.getOutEdgesOf(m), actual.getOutEdgesOf(m));
+            Assert.assertEquals(expected.getInEdgesOf(m), actual.getInEdgesOf(m));
+            expected.reachableMethods().forEach(n ->
+                    Assert.assertEquals(expected.hasEdge(m, n), actual.hasEdge(m, n)));
+        });
+    }
+
+    private static final String MAIN = "<VirtualCall: void main(java.lang.String[])>";
+
+    private static final String B_INIT = "<B: void <init>()>";
+
+    private static final String A_INIT = "<A: void <init>()>";
+
+    private static final String OBJECT_INIT = "<java.lang.Object: void <init>()>";
+
+    private static final String A_FOO = "<A: void foo()>";
+
+    private static final String C_FOO = "<C: void foo()>";
+
+    private static final String D_FOO = "<D: void foo()>";
+
+    @Test
+    public void testWriteJsonl() throws IOException {
+        Graph graph = writeCallGraph("jsonl", "");
+        Assert.assertTrue(graph.nodes.containsAll(Set.of(
+                MAIN, B_INIT, A_INIT, OBJECT_INIT, A_FOO, C_FOO, D_FOO)));
+        Assert.assertTrue(graph.edges.containsAll(Set.of(
+                MAIN + " -> " + B_INIT, MAIN + " -> " + A_FOO,
+                MAIN + " -> " + C_FOO, MAIN + " -> " + D_FOO,
+                B_INIT + " -> " + A_INIT, A_INIT + " -> " + OBJECT_INIT)));
+    }
+
+    @Test
+    public void testWriteDot() throws IOException {
+        Graph graph = writeCallGraph("dot", "");
+        Assert.assertEquals("digraph G {", graph.lines.get(0));
+        Assert.assertEquals("}", graph.lines.get(graph.lines.size() - 1));
+        Assert.assertTrue(graph.nodes.containsAll(Set.of(
+                MAIN, B_INIT, A_INIT, OBJECT_INIT, A_FOO, C_FOO, D_FOO)));
+        Assert.assertTrue(graph.edges.containsAll(Set.of(
+                MAIN + " -> " + B_INIT, MAIN + " -> " + A_FOO,
+                MAIN + " -> " + C_FOO, MAIN + " -> " + D_FOO,
+                B_INIT + " -> " + A_INIT, A_INIT + " -> " + OBJECT_INIT)));
+    }
+
+    @Test
+    public void testWriteAppOnly() throws IOException {
+        Graph graph = writeCallGraph("jsonl", ";app-only:true");
+        Assert.assertEquals(Set.of(MAIN, B_INIT, A_INIT, A_FOO, C_FOO, D_FOO),
+                graph.nodes);
+        Assert.assertEquals(Set.of(
+                MAIN + " -> " + B_INIT, MAIN + " -> " + A_FOO,
+                MAIN + " -> " + C_FOO, MAIN + " -> " + D_FOO,
+                B_INIT + " -> " + A_INIT), graph.edges);
+    }
+
+    @Test
+    public void testWritePackage() throws IOException {
+        Graph graph = writeCallGraph("jsonl", ";package:java.lang");
+        Assert.assertEquals(Set.of(OBJECT_INIT), graph.nodes);
+        Assert.assertEquals(Set.of(), graph.edges);
+    }
+
+    @Test
+    public void testWriteDepth() throws IOException {
+        Graph graph = writeCallGraph("jsonl", ";depth:1");
+        Assert.assertEquals(Set.of(MAIN, B_INIT, A_FOO, C_FOO, D_FOO),
+                graph.nodes);
+        Assert.assertEquals(Set.of(
+                MAIN + " -> " + B_INIT, MAIN + " -> " + A_FOO,
+                MAIN + " -> " + C_FOO, MAIN + " -> " + D_FOO), graph.edges);
+        graph = writeCallGraph("dot", ";depth:2");
+        Assert.assertEquals(Set.of(MAIN, B_INIT, A_INIT, A_FOO, C_FOO, D_FOO),
+                graph.nodes);
+        Assert.assertEquals(Set.of(
+                MAIN + " -> " + B_INIT, MAIN + " -> " + A_FOO,
+                MAIN + " -> " + C_FOO, MAIN + " -> " + D_FOO,
+                B_INIT + " -> " + A_INIT), graph.edges);
+    }
+
+    @Test
+    public void testWriteICFG() throws IOException {
+        String file = "build/VirtualCall-icfg.jsonl";
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha", "-a", ICFGBuilder.ID +
+                        "=dump:true;format:jsonl;app-only:true;file:" + file);
+        Graph graph = readGraph(file);
+        // nodes are identified by <method signature>/<statement index>
+        Assert.assertFalse(graph.nodes.isEmpty());
+        Assert.assertTrue(graph.nodes.stream().noneMatch(n ->
+                n.startsWith(OBJECT_INIT)));
+        Assert.assertTrue(graph.edges.stream().noneMatch(e ->
+                e.contains(OBJECT_INIT)));
+        for (String callee : List.of(A_FOO, C_FOO, D_FOO)) {
+            Assert.assertTrue(graph.edges.stream().anyMatch(e ->
+                    e.startsWith(MAIN + "/") &&
+                            e.contains(" -> " + callee + "/")));
+        }
+    }
+
+    /**
+     * Writes the call graph of VirtualCall in given format
+     * with given extra options, and reads it back.
+     */
+    private static Graph writeCallGraph(String format, String filters)
+            throws IOException {
+        String file = "build/VirtualCall-cg." + format;
+        Tests.test("VirtualCall", "src/test/resources/cha/", "cg",
+                "algorithm:cha;action:dump;format:" + format +
+                        ";file:" + file + filters);
+        return readGraph(file);
+    }
+
+    private static final Pattern JSONL_NODE = Pattern.compile(
+            "^\\{\"node\":\"([^\"]*)\".*}$");
+
+    private static final Pattern JSONL_EDGE = Pattern.compile(
+            "^\\{\"source\":\"([^\"]*)\",\"target\":\"([^\"]*)\".*}$");
+
+    private static final Pattern DOT_NODE = Pattern.compile(
+            "^ {2}\"([^\"]*)\"( \\[.*])?;$");
+
+    private static final Pattern DOT_EDGE = Pattern.compile(
+            "^ {2}\"([^\"]*)\" -> \"([^\"]*)\"( \\[.*])?;$");
+
+    /**
+     * Reads the nodes and edges (in form of "source -> target")
+     * written by GraphWriter in either DOT or JSON-lines format.
+     */
+    private static Graph readGraph(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Path.of(file));
+        Set<String> nodes = new HashSet<>();
+        Set<String> edges = new HashSet<>();
+        for (String line : lines) {
+            Matcher m;
+            if ((m = JSONL_EDGE.matcher(line)).matches() ||
+                    (m = DOT_EDGE.matcher(line)).matches()) {
+                edges.add(m.group(1) + " -> " + m.group(2));
+            } else if ((m = JSONL_NODE.matcher(line)).matches() ||
+                    (m = DOT_NODE.matcher(line)).matches()) {
+                nodes.add(m.group(1));
+            }
+        }
+        // every edge is written between written nodes
+        edges.forEach(e -> {
+            String[] ends = e.split(" -> ");
+            Assert.assertTrue(e, nodes.contains(ends[0]) && nodes.contains(ends[1]));
+        });
+        return new Graph(lines, nodes, edges);
+    }
+
+    private record Graph(List<String> lines, Set<String> nodes, Set<String> edges) {
+    }
+
+    /**
+     * Builds a class which extends {@code superClass} and
+     * declares {@code method}.
+     */
+    private record SubclassBuilder(JClass jclass, JClass superClass, JMethod method)
+            implements JClassBuilder {
+
+        @Override
+        public void build(JClass jclass) {
+            jclass.build(this);
+        }
+
+        @Override
+        public Set<Modifier> getModifiers() {
+            return Set.of();
+        }
+
+        @Override
+        public String getSimpleName() {
+            return jclass.getName();
+        }
+
+        @Override
+        public ClassType getClassType() {
+            return World.get().getTypeSystem().getClassType(
+                    jclass.getClassLoader(), jclass.getName());
+        }
+
+        @Override
+        public JClass getSuperClass() {
+            return superClass;
+        }
+
+        @Override
+        public Collection<JClass> getInterfaces() {
+            return List.of();
+        }
+
+        @Override
+        public JClass getOuterClass() {
+            return null;
+        }
+
+        @Override
+        public Collection<JField> getDeclaredFields() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<JMethod> getDeclaredMethods() {
+            return List.of(method);
+        }
+
+        @Override
+        public AnnotationHolder getAnnotationHolder() {
+            return AnnotationHolder.emptyHolder();
+        }
+
+        @Override
+        public boolean isApplication() {
+            return true;
+        }
+    }
 }
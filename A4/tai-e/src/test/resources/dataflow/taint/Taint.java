@@ -0,0 +1,23 @@
+class Taint {
+
+    public static void main(String[] args) {
+        String s1 = source();
+        String s2 = id(s1);
+        sink(s2); // taint flow
+        String s3 = "clean";
+        sink(id(s3)); // no taint flow, as id() is analyzed context-sensitively
+        Object o = s1;
+        sink((String) o); // taint flow
+    }
+
+    static String source() {
+        return new String();
+    }
+
+    static String id(String s) {
+        return s;
+    }
+
+    static void sink(String s) {
+    }
+}
@@ -52,6 +52,42 @@ public abstract class AbstractCallGraph<CallSite, Method>
     protected final Set<Method> entryMethods = Sets.newSet();
     protected final Set<Method> reachableMethods = Sets.newSet();
 
+    /**
+     * Compact representation of caller-callee relations, which is
+     * available after {@link #freeze()} and before next modification.
+     */
+    private CompactIndex<CallSite, Method> compactIndex;
+
+    /**
+     * Converts the caller-callee relations of this call graph into
+     * compact arrays, after which {@link #getSuccsOf}, {@link #getPredsOf},
+     * {@link #getCalleesOfM}, {@link #getOutEdgesOf} and {@link #getInEdgesOf}
+     * return cached immutable views instead of building new collections.
+     * This method should be called when the construction of the call graph
+     * finishes. Subsequent modifications to this call graph discard
+     * the compact representation.
+     */
+    public void freeze() {
+        if (compactIndex == null) {
+            compactIndex = new CompactIndex<>(this);
+        }
+    }
+
+    /**
+     * @return true if this call graph is frozen and not modified since then.
+     */
+    public boolean isFrozen() {
+        return compactIndex != null;
+    }
+
+    /**
+     * Subclasses should call this method when they modify the
+     * caller-callee relations of this call graph.
+     */
+    protected void unfreeze() {
+        compactIndex = null;
+    }
+
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
         return Views.toMappedSet(calleeToEdges.get(callee), Edge::getCallSite);
@@ -64,6 +100,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getCalleesOfM(Method caller) {
+        if (compactIndex != null) {
+            return compactIndex.getSuccsOf(caller);
+        }
         return callSitesIn(caller)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
@@ -128,28 +167,48 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public boolean hasEdge(Method source, Method target) {
+        if (compactIndex != null) {
+            return compactIndex.hasEdge(source, target);
+        }
         return getSuccsOf(source).contains(target);
     }
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        if (compactIndex != null) {
+            return compactIndex.getInEdgesOf(this, method);
+        }
+        return Collections.unmodifiableSet(computeInEdgesOf(method));
+    }
+
+    Set<MethodEdge<CallSite, Method>> computeInEdgesOf(Method method) {
         return getCallersOf(method)
                 .stream()
                 .map(cs -> new MethodEdge<>(getContainerOf(cs), method, cs))
-                .collect(Collectors.toUnmodifiableSet());
+                .collect(Collectors.toSet());
     }
 
     @Override
     public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        if (compactIndex != null) {
+            return compactIndex.getOutEdgesOf(this, method);
+        }
+        return Collections.unmodifiableSet(computeOutEdgesOf(method));
+    }
+
+    Set<MethodEdge<CallSite, Method>> computeOutEdgesOf(Method method) {
         return callSitesIn(method)
                 .flatMap(cs -> getCalleesOf(cs)
                         .stream()
                         .map(callee -> new MethodEdge<>(method, callee, cs)))
-                .collect(Collectors.toUnmodifiableSet());
+                .collect(Collectors.toSet());
     }
 
     @Override
     public Set<Method> getPredsOf(Method node) {
+        if (compactIndex != null) {
+            return compactIndex.getPredsOf(node);
+        }
         return getCallersOf(node)
                 .stream()
                 .map(this::getContainerOf)
@@ -158,6 +217,9 @@ public abstract class AbstractCallGraph<CallSite, Method>
 
     @Override
     public Set<Method> getSuccsOf(Method node) {
+        if (compactIndex != null) {
+            return compactIndex.getSuccsOf(node);
+        }
         return callSitesIn(node)
                 .flatMap(cs -> getCalleesOf(cs).stream())
                 .collect(Collectors.toUnmodifiableSet());
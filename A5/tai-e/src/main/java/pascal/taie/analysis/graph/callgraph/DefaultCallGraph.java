@@ -48,6 +48,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addReachableMethod(JMethod method) {
         if (reachableMethods.add(method)) {
+            unfreeze();
             if (!method.isAbstract()) {
                 method.getIR().forEach(stmt -> {
                     if (stmt instanceof Invoke invoke) {
@@ -70,6 +71,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addEdge(Edge<Invoke, JMethod> edge) {
         if (callSiteToEdges.put(edge.getCallSite(), edge)) {
+            unfreeze();
             calleeToEdges.put(edge.getCallee(), edge);
             return true;
         } else {
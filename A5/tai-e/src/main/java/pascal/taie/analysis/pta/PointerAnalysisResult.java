@@ -31,6 +31,7 @@ import pascal.taie.language.classes.JMethod;
 
 import java.util.Collection;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface PointerAnalysisResult {
 
@@ -59,6 +60,24 @@ public interface PointerAnalysisResult {
      */
     Set<Obj> getPointsToSet(JField field);
 
+    /**
+     * @return the variables that may point to given object.
+     */
+    default Set<Var> getVarsPointingTo(Obj obj) {
+        return getVars().stream()
+                .filter(var -> getPointsToSet(var).contains(obj))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return true if two variables may point to a common object,
+     * otherwise false.
+     */
+    default boolean mayAlias(Var v1, Var v2) {
+        Set<Obj> pts2 = getPointsToSet(v2);
+        return getPointsToSet(v1).stream().anyMatch(pts2::contains);
+    }
+
     /**
      * @return the resulting call graph (without contexts).
      */
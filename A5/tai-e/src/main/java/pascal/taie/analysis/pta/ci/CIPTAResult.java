@@ -56,10 +56,53 @@ class CIPTAResult implements PointerAnalysisResult {
 
     private Set<Obj> objects;
 
+    /**
+     * Index for reverse points-to and alias queries, which is built
+     * on the first of such queries. The queries may come from multiple
+     * threads, thus the index is published via a volatile field.
+     */
+    private volatile PointsToIndex index;
+
+    /**
+     * Statistics of difference propagation, see {@link Solver}.
+     */
+    private final long mergedEntries;
+
+    private final long deltaObjects;
+
+    private final long skippedObjects;
+
     CIPTAResult(PointerFlowGraph pointerFlowGraph,
-                CallGraph<Invoke, JMethod> callGraph) {
+                CallGraph<Invoke, JMethod> callGraph,
+                long mergedEntries, long deltaObjects, long skippedObjects) {
         this.pointerFlowGraph = pointerFlowGraph;
         this.callGraph = callGraph;
+        this.mergedEntries = mergedEntries;
+        this.deltaObjects = deltaObjects;
+        this.skippedObjects = skippedObjects;
+    }
+
+    /**
+     * @return the number of work-list entries merged into the entries
+     * of the same pointers.
+     */
+    long getMergedEntries() {
+        return mergedEntries;
+    }
+
+    /**
+     * @return the number of objects propagated by difference propagation.
+     */
+    long getDeltaObjects() {
+        return deltaObjects;
+    }
+
+    /**
+     * @return the number of objects that difference propagation skips,
+     * i.e., that propagating whole points-to sets would propagate again.
+     */
+    long getSkippedObjects() {
+        return skippedObjects;
     }
 
     @Override
@@ -115,6 +158,29 @@ class CIPTAResult implements PointerAnalysisResult {
                 .getObjects();
     }
 
+    @Override
+    public Set<Var> getVarsPointingTo(Obj obj) {
+        return getIndex().getVarsPointingTo(obj);
+    }
+
+    @Override
+    public boolean mayAlias(Var v1, Var v2) {
+        return getIndex().mayAlias(v1, v2);
+    }
+
+    private PointsToIndex getIndex() {
+        PointsToIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    index = result = new PointsToIndex(pointerFlowGraph);
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> getCallGraph() {
         return callGraph;
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Offline hash-based value numbering (HVN) of the variables in a method.
+ * <p>
+ * Each definition of a variable is given a label, and two variables are
+ * pointer-equivalent if they have the same set of labels. A copy passes
+ * the value number of its source, and loads from the same field of bases
+ * with the same value number get the same label. Allocations, calls,
+ * parameters and other definitions get fresh labels, as their points-to
+ * sets are unknown offline. The variables in a cycle of copies or loads
+ * also get fresh labels, which is conservative.
+ */
+class HashValueNumbering {
+
+    private static final int IN_PROGRESS = -1;
+
+    private final IR ir;
+
+    private final MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+
+    private final Map<Var, Integer> valueNumbers = Maps.newMap();
+
+    /**
+     * Labels of hash-consed keys, i.e., static fields, dereferences,
+     * and sets of labels.
+     */
+    private final Map<Object, Integer> labels = Maps.newMap();
+
+    private int nextLabel = 0;
+
+    /**
+     * Dereference of a field (null for arrays) on bases with given value number.
+     */
+    private record Deref(int base, JField field) {
+    }
+
+    private HashValueNumbering(IR ir) {
+        this.ir = ir;
+        ir.forEach(stmt -> stmt.getDef().ifPresent(def -> {
+            if (def instanceof Var var) {
+                defs.put(var, stmt);
+            }
+        }));
+    }
+
+    /**
+     * @return the groups (of at least two) of pointer-equivalent
+     * variables of reference types in given IR.
+     */
+    static List<List<Var>> findEquivalentVars(IR ir) {
+        HashValueNumbering hvn = new HashValueNumbering(ir);
+        MultiMap<Integer, Var> groups = Maps.newMultiMap();
+        for (Var var : ir.getVars()) {
+            if (var.getType() instanceof ReferenceType) {
+                groups.put(hvn.getValueNumber(var), var);
+            }
+        }
+        List<List<Var>> result = new ArrayList<>();
+        groups.forEachSet((vn, vars) -> {
+            if (vars.size() > 1) {
+                result.add(List.copyOf(vars));
+            }
+        });
+        return result;
+    }
+
+    private int newLabel() {
+        return nextLabel++;
+    }
+
+    private int getLabel(Object key) {
+        return labels.computeIfAbsent(key, k -> newLabel());
+    }
+
+    private int getValueNumber(Var var) {
+        Integer vn = valueNumbers.get(var);
+        if (vn != null) {
+            return vn == IN_PROGRESS ? newLabel() : vn;
+        }
+        valueNumbers.put(var, IN_PROGRESS);
+        Set<Integer> incoming = new TreeSet<>();
+        if (var == ir.getThis() || ir.getParams().contains(var)) {
+            incoming.add(newLabel());
+        }
+        for (Stmt def : defs.get(var)) {
+            incoming.add(getLabelOf(def));
+        }
+        vn = incoming.size() == 1 ?
+                incoming.iterator().next() : getLabel(List.copyOf(incoming));
+        valueNumbers.put(var, vn);
+        return vn;
+    }
+
+    private int getLabelOf(Stmt def) {
+        if (def instanceof Copy copy) {
+            return getValueNumber(copy.getRValue());
+        } else if (def instanceof LoadField load) {
+            JField field = load.getFieldRef().resolve();
+            if (load.isStatic()) {
+                return getLabel(field);
+            }
+            Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+            return getLabel(new Deref(getValueNumber(base), field));
+        } else if (def instanceof LoadArray load) {
+            return getLabel(new Deref(
+                    getValueNumber(load.getArrayAccess().getBase()), null));
+        } else {
+            return newLabel();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.IDProvider;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers abstract objects consecutively from 0 in the order they are
+ * first seen, so that points-to sets can be represented as bit sets.
+ */
+class ObjIndexer implements IDProvider<Obj> {
+
+    private final Map<Obj, Integer> ids = Maps.newMap();
+
+    private final List<Obj> objs = new ArrayList<>();
+
+    /**
+     * @return the number of given object.
+     */
+    @Override
+    public int getID(Obj obj) {
+        Integer id = ids.get(obj);
+        if (id == null) {
+            id = objs.size();
+            ids.put(obj, id);
+            objs.add(obj);
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of given object, or -1 if the object has not
+     * been numbered. Unlike {@link #getID(Obj)}, this never numbers
+     * the object, so it is safe for queries.
+     */
+    int findID(Obj obj) {
+        Integer id = ids.get(obj);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the object of given number.
+     */
+    Obj getObj(int id) {
+        return objs.get(id);
+    }
+
+    /**
+     * @return the number of indexed objects.
+     */
+    int size() {
+        return objs.size();
+    }
+}
@@ -22,16 +22,93 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.language.type.Type;
+
 /**
  * Represents pointers in pointer analysis and nodes in pointer flow graph.
+ * <p>
+ * The pointers in a cycle of the pointer flow graph are collapsed into
+ * one representative, and they share the points-to set of it.
  *
  * @see PointerFlowGraph
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    private final PointsToSet pointsToSet;
+
+    /**
+     * Objects that flowed to this pointer since it was last processed,
+     * or null if this pointer is not in the work list.
+     */
+    private PointsToSet delta;
+
+    /**
+     * Parent of this pointer in the union-find forest of collapsed pointers.
+     */
+    private Pointer parent = this;
+
+    Pointer(ObjIndexer indexer) {
+        pointsToSet = new PointsToSet(indexer);
+    }
 
     PointsToSet getPointsToSet() {
-        return pointsToSet;
+        return getRep().pointsToSet;
+    }
+
+    /**
+     * @return the declared type of this pointer.
+     */
+    abstract Type getType();
+
+    /**
+     * @return the representative of the pointers collapsed with this pointer,
+     * or this pointer itself if it has not been collapsed.
+     */
+    Pointer getRep() {
+        Pointer rep = this;
+        while (rep.parent != rep) {
+            rep = rep.parent;
+        }
+        // path compression
+        Pointer p = this;
+        while (p.parent != rep) {
+            Pointer next = p.parent;
+            p.parent = rep;
+            p = next;
+        }
+        return rep;
+    }
+
+    /**
+     * Redirects this pointer (which must be a representative) to {@code rep}.
+     */
+    void setRep(Pointer rep) {
+        assert parent == this;
+        parent = rep;
+    }
+
+    /**
+     * Adds objects to the delta of this pointer.
+     *
+     * @return true if the delta was absent before the call, i.e.,
+     * this pointer is not in the work list yet, otherwise false.
+     */
+    boolean addDelta(PointsToSet pts) {
+        if (delta == null) {
+            delta = pts.copy();
+            return true;
+        } else {
+            delta.addAll(pts);
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves and clears the delta of this pointer.
+     */
+    PointsToSet takeDelta() {
+        PointsToSet result = delta;
+        delta = null;
+        return result;
     }
 }
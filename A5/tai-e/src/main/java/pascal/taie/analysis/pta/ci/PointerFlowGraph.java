@@ -27,18 +27,34 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * The pointers in a cycle can be collapsed into one representative
+ * (see {@link #collapse(Collection)}). The edges are kept between
+ * representatives, and the pointers given to {@link #addEdge} and
+ * {@link #getSuccsOf} are redirected to their representatives.
  */
 class PointerFlowGraph {
 
+    private final ObjIndexer indexer;
+
     /**
      * Set of all pointer in this PFG.
      */
@@ -69,6 +85,27 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Map from a representative to the pointers collapsed into it.
+     * Only contains the representatives of collapsed pointers.
+     */
+    private final Map<Pointer, Set<Pointer>> members = Maps.newMap();
+
+    /**
+     * Map from a variable to the group of variables that are
+     * pointer-equivalent to it.
+     */
+    private final Map<Var, List<Var>> equivalentVars = Maps.newMap();
+
+    /**
+     * Pairs of Var nodes of equivalent variables that are to be collapsed.
+     */
+    private final List<Pair<VarPtr, VarPtr>> equivalentVarPtrs = new ArrayList<>();
+
+    PointerFlowGraph(ObjIndexer indexer) {
+        this.indexer = indexer;
+    }
+
     /**
      * Returns all pointers in this PFG.
      */
@@ -76,15 +113,95 @@ class PointerFlowGraph {
         return Collections.unmodifiableSet(pointers);
     }
 
+    /**
+     * Computes the ranks of the representatives in this PFG by reverse
+     * post-order, i.e., the ranks are in topological order if the PFG
+     * is acyclic. This method does not modify the edges, thus it can be
+     * called while iterating the successors of a pointer.
+     *
+     * @return map from each representative to its rank.
+     */
+    Map<Pointer, Integer> computeRanks() {
+        List<Pointer> postOrder = new ArrayList<>();
+        Set<Pointer> visited = Sets.newSet();
+        Deque<Pair<Pointer, Iterator<Pointer>>> stack = new ArrayDeque<>();
+        for (Pointer root : pointers) {
+            if (root.getRep() == root && visited.add(root)) {
+                stack.push(new Pair<>(root, successors.get(root).iterator()));
+            }
+            while (!stack.isEmpty()) {
+                Pair<Pointer, Iterator<Pointer>> top = stack.peek();
+                if (top.second().hasNext()) {
+                    Pointer succ = top.second().next().getRep();
+                    if (visited.add(succ)) {
+                        stack.push(new Pair<>(succ, successors.get(succ).iterator()));
+                    }
+                } else {
+                    postOrder.add(stack.pop().first());
+                }
+            }
+        }
+        Map<Pointer, Integer> ranks = Maps.newMap(postOrder.size());
+        for (int i = 0; i < postOrder.size(); ++i) {
+            ranks.put(postOrder.get(i), postOrder.size() - 1 - i);
+        }
+        return ranks;
+    }
+
     /**
      * @return the corresponding Var node for the given variable.
      */
     VarPtr getVarPtr(Var var) {
-        return varPtrs.computeIfAbsent(var, v -> {
-            VarPtr varPtr = new VarPtr(v);
+        VarPtr varPtr = varPtrs.get(var);
+        if (varPtr == null) {
+            varPtr = new VarPtr(var, indexer);
+            varPtrs.put(var, varPtr);
             pointers.add(varPtr);
-            return varPtr;
+            List<Var> vars = equivalentVars.get(var);
+            if (vars != null) {
+                for (Var v : vars) {
+                    VarPtr other = varPtrs.get(v);
+                    if (other != null && other != varPtr) {
+                        equivalentVarPtrs.add(new Pair<>(varPtr, other));
+                        break;
+                    }
+                }
+            }
+        }
+        return varPtr;
+    }
+
+    /**
+     * Records a group of pointer-equivalent variables. The Var nodes of
+     * them are created on demand as usual, and each created node is paired
+     * with an existing node of the group (see {@link #takeEquivalentVarPtrs()}),
+     * so that no node is created only for merging the variables.
+     */
+    void addEquivalentVars(List<Var> vars) {
+        vars.forEach(var -> equivalentVars.put(var, vars));
+        List<VarPtr> existing = new ArrayList<>();
+        vars.forEach(var -> {
+            VarPtr varPtr = varPtrs.get(var);
+            if (varPtr != null) {
+                existing.add(varPtr);
+            }
         });
+        for (int i = 1; i < existing.size(); ++i) {
+            equivalentVarPtrs.add(new Pair<>(existing.get(i), existing.get(0)));
+        }
+    }
+
+    /**
+     * Retrieves and clears the pairs of Var nodes of equivalent variables
+     * that are created since last call.
+     */
+    List<Pair<VarPtr, VarPtr>> takeEquivalentVarPtrs() {
+        if (equivalentVarPtrs.isEmpty()) {
+            return List.of();
+        }
+        List<Pair<VarPtr, VarPtr>> result = List.copyOf(equivalentVarPtrs);
+        equivalentVarPtrs.clear();
+        return result;
     }
 
     /**
@@ -92,7 +209,7 @@ class PointerFlowGraph {
      */
     StaticField getStaticField(JField field) {
         return staticFields.computeIfAbsent(field, f -> {
-            StaticField staticField = new StaticField(f);
+            StaticField staticField = new StaticField(f, indexer);
             pointers.add(staticField);
             return staticField;
         });
@@ -104,7 +221,7 @@ class PointerFlowGraph {
      */
     InstanceField getInstanceField(Obj base, JField field) {
         return instanceFields.computeIfAbsent(base, field, (b, f) -> {
-                InstanceField instanceField = new InstanceField(b, f);
+                InstanceField instanceField = new InstanceField(b, f, indexer);
                 pointers.add(instanceField);
                 return instanceField;
             });
@@ -115,7 +232,7 @@ class PointerFlowGraph {
      */
     ArrayIndex getArrayIndex(Obj array) {
         return arrayIndexes.computeIfAbsent(array, a -> {
-            ArrayIndex arrayIndex = new ArrayIndex(a);
+            ArrayIndex arrayIndex = new ArrayIndex(a, indexer);
             pointers.add(arrayIndex);
             return arrayIndex;
         });
@@ -128,13 +245,95 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer sourceRep = source.getRep();
+        Pointer targetRep = target.getRep();
+        return sourceRep != targetRep && successors.put(sourceRep, targetRep);
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * @return successors of given pointer in the PFG, i.e.,
+     * the successors of its representative.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        Pointer rep = pointer.getRep();
+        Set<Pointer> succs = successors.get(rep);
+        if (succs.stream().anyMatch(s -> s.getRep() != s || s == rep)) {
+            // some successors have been collapsed after the edges were added
+            Set<Pointer> succReps = Sets.newHybridSet();
+            succs.forEach(s -> {
+                Pointer succRep = s.getRep();
+                if (succRep != rep) {
+                    succReps.add(succRep);
+                }
+            });
+            successors.removeAll(rep);
+            successors.putAll(rep, succReps);
+            succs = successors.get(rep);
+        }
+        return succs;
+    }
+
+    /**
+     * @return the pointers collapsed with given pointer, including itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = pointer.getRep();
+        Set<Pointer> result = members.get(rep);
+        return result != null ? Collections.unmodifiableSet(result) : Set.of(rep);
+    }
+
+    /**
+     * Collapses given pointers into one representative, and moves the
+     * edges out of them to the representative. The points-to sets of
+     * the pointers are not merged by this method.
+     *
+     * @return the representative.
+     */
+    Pointer collapse(Collection<Pointer> pointers) {
+        Pointer rep = pointers.iterator().next().getRep();
+        for (Pointer pointer : pointers) {
+            Pointer oldRep = pointer.getRep();
+            if (oldRep != rep) {
+                oldRep.setRep(rep);
+                successors.putAll(rep, successors.get(oldRep));
+                successors.removeAll(oldRep);
+                Set<Pointer> repMembers = members.computeIfAbsent(rep, r -> {
+                    Set<Pointer> s = Sets.newHybridSet();
+                    s.add(r);
+                    return s;
+                });
+                Set<Pointer> oldMembers = members.remove(oldRep);
+                if (oldMembers != null) {
+                    repMembers.addAll(oldMembers);
+                } else {
+                    repMembers.add(oldRep);
+                }
+            }
+        }
+        return rep;
+    }
+
+    /**
+     * Finds the cycles among the pointers reachable from given pointer.
+     *
+     * @return the representatives of the pointers in each cycle.
+     */
+    List<List<Pointer>> findCycles(Pointer from) {
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Pointer fromRep = from.getRep();
+        graph.addNode(fromRep);
+        stack.push(fromRep);
+        while (!stack.isEmpty()) {
+            Pointer pointer = stack.pop();
+            for (Pointer succ : getSuccsOf(pointer)) {
+                if (!graph.hasNode(succ)) {
+                    graph.addNode(succ);
+                    stack.push(succ);
+                }
+                graph.addEdge(pointer, succ);
+            }
+        }
+        return new SCC<>(graph).getTrueComponents();
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Pair;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the results of pointer analysis for alias queries.
+ * <p>
+ * The index is built on the first query after solving. It maps each variable to its
+ * points-to set, and each object to the variables that may point to it
+ * (built in parallel). Two variables may alias if their points-to sets
+ * intersect, which is checked on the bit sets.
+ */
+class PointsToIndex {
+
+    private final Map<Var, PointsToSet> varPointsTo;
+
+    private final Map<Obj, Set<Var>> pointedBy;
+
+    PointsToIndex(PointerFlowGraph pointerFlowGraph) {
+        // resolve the points-to sets (which may compress the paths
+        // of collapsed pointers) before reading them in parallel
+        varPointsTo = pointerFlowGraph.getPointers()
+                .stream()
+                .filter(VarPtr.class::isInstance)
+                .map(VarPtr.class::cast)
+                .collect(Collectors.toUnmodifiableMap(
+                        VarPtr::getVar, VarPtr::getPointsToSet));
+        pointedBy = varPointsTo.entrySet()
+                .parallelStream()
+                .flatMap(e -> e.getValue().objects()
+                        .map(obj -> new Pair<>(obj, e.getKey())))
+                .collect(Collectors.groupingByConcurrent(Pair::first,
+                        Collectors.mapping(Pair::second,
+                                Collectors.toUnmodifiableSet())));
+    }
+
+    /**
+     * @return the variables that may point to given object.
+     */
+    Set<Var> getVarsPointingTo(Obj obj) {
+        return pointedBy.getOrDefault(obj, Set.of());
+    }
+
+    /**
+     * @return true if two variables may point to a common object.
+     */
+    boolean mayAlias(Var v1, Var v2) {
+        PointsToSet pts1 = varPointsTo.get(v1);
+        PointsToSet pts2 = varPointsTo.get(v2);
+        return pts1 != null && pts2 != null && pts1.intersects(pts2);
+    }
+}
@@ -23,33 +23,82 @@
 package pascal.taie.analysis.pta.ci;
 
 import pascal.taie.analysis.pta.core.heap.Obj;
-import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SparseBitSet;
 
-import java.util.Collections;
+import java.util.AbstractSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
  * Represents of points-to sets.
+ * <p>
+ * The objects are stored as their numbers given by {@link ObjIndexer}
+ * in a {@link SparseBitSet}, so that set union and difference are done
+ * word by word. The bit set may be shared with other points-to sets,
+ * e.g., by {@link #copy()}, by adding a set to an empty set, or by
+ * {@link #intern(PointsToSetPool)}, and it is copied on write.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private final ObjIndexer indexer;
+
+    private SparseBitSet set;
+
+    /**
+     * Whether {@link #set} may be shared with other points-to sets.
+     */
+    private boolean shared;
 
     /**
      * Constructs an empty points-to set.
      */
-    PointsToSet() {
+    PointsToSet(ObjIndexer indexer) {
+        this(indexer, new SparseBitSet());
     }
 
     /**
      * Constructs a points-to set containing one object.
      */
-    PointsToSet(Obj obj) {
+    PointsToSet(ObjIndexer indexer, Obj obj) {
+        this(indexer);
         addObject(obj);
     }
 
+    private PointsToSet(ObjIndexer indexer, SparseBitSet set) {
+        this(indexer, set, false);
+    }
+
+    private PointsToSet(ObjIndexer indexer, SparseBitSet set, boolean shared) {
+        this.indexer = indexer;
+        this.set = set;
+        this.shared = shared;
+    }
+
+    /**
+     * Copies the bit set before it is modified if it is shared.
+     */
+    private void ensureOwned() {
+        if (shared) {
+            set = new SparseBitSet(set);
+            shared = false;
+        }
+    }
+
+    /**
+     * Shares the bit set of given points-to set, which is used when
+     * this set is empty.
+     */
+    private void share(PointsToSet pts) {
+        if (!pts.shared) {
+            pts.shared = true;
+        }
+        set = pts.set;
+        shared = true;
+    }
+
     /**
      * Adds an object to this set.
      *
@@ -57,14 +106,98 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
-        return set.add(obj);
+        int id = indexer.getID(obj);
+        if (set.get(id)) {
+            return false;
+        }
+        ensureOwned();
+        return set.set(id);
+    }
+
+    /**
+     * Adds all objects in given points-to set to this set.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addAll(PointsToSet pts) {
+        if (pts.isEmpty()) {
+            return false;
+        }
+        if (isEmpty()) {
+            share(pts);
+            return true;
+        }
+        ensureOwned();
+        return set.or(pts.set);
+    }
+
+    /**
+     * Adds all objects in given points-to set to this set.
+     *
+     * @return a new points-to set of the objects that are newly added
+     * by this call, i.e., the objects in {@code pts} but not in this set.
+     */
+    PointsToSet addAllDiff(PointsToSet pts) {
+        if (isEmpty() && !pts.isEmpty()) {
+            share(pts);
+            return new PointsToSet(indexer, set, true);
+        }
+        SparseBitSet diff = set.diff(pts.set);
+        if (!diff.isEmpty()) {
+            ensureOwned();
+            set.or(diff);
+        }
+        return new PointsToSet(indexer, diff);
+    }
+
+    /**
+     * @return a points-to set of the objects in this set that satisfy
+     * given predicate, or this set itself if all objects satisfy it.
+     */
+    PointsToSet filter(Predicate<Obj> predicate) {
+        SparseBitSet result = new SparseBitSet();
+        set.forEach(id -> {
+            if (predicate.test(indexer.getObj(id))) {
+                result.set(id);
+            }
+        });
+        return result.cardinality() == set.cardinality() ?
+                this : new PointsToSet(indexer, result);
+    }
+
+    /**
+     * @return a copy of this points-to set, which shares the bit set
+     * with this set until either of them is modified.
+     */
+    PointsToSet copy() {
+        shared = true;
+        return new PointsToSet(indexer, set, true);
+    }
+
+    /**
+     * Replaces the bit set of this points-to set by the equal one
+     * in given pool, so that equal points-to sets share the same bit set.
+     */
+    void intern(PointsToSetPool pool) {
+        set = pool.intern(set);
+        shared = true;
     }
 
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
     boolean contains(Obj obj) {
-        return set.contains(obj);
+        int id = indexer.findID(obj);
+        return id >= 0 && set.get(id);
+    }
+
+    /**
+     * @return true if this points-to set and {@code pts} have any
+     * common object, otherwise false.
+     */
+    boolean intersects(PointsToSet pts) {
+        return set == pts.set ? !set.isEmpty() : set.intersects(pts.set);
     }
 
     /**
@@ -78,30 +211,72 @@ class PointsToSet implements Iterable<Obj> {
      * @return the number of objects in this set.
      */
     int size() {
-        return set.size();
+        return set.cardinality();
     }
 
     /**
      * @return all objects in this set.
      */
     Stream<Obj> objects() {
-        return set.stream();
+        return getObjects().stream();
     }
 
     /**
      * @return all objects in this set.
      */
     Set<Obj> getObjects() {
-        return Collections.unmodifiableSet(set);
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Obj obj && PointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<Obj> iterator() {
+                return PointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return PointsToSet.this.size();
+            }
+        };
     }
 
     @Override
     public Iterator<Obj> iterator() {
-        return set.iterator();
+        PrimitiveIterator.OfInt ids = set.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Obj next() {
+                return indexer.getObj(ids.nextInt());
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return set.equals(((PointsToSet) o).set);
+    }
+
+    @Override
+    public int hashCode() {
+        return set.hashCode();
     }
 
     @Override
     public String toString() {
-        return set.toString();
+        return getObjects().toString();
     }
 }
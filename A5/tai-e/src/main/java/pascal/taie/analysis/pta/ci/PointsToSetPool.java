@@ -0,0 +1,65 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.util.Map;
+
+/**
+ * Pool of hash-consed bit sets of points-to sets. Each bit set
+ * in the pool is shared and must not be modified.
+ */
+class PointsToSetPool {
+
+    private final Map<SparseBitSet, SparseBitSet> sets = Maps.newMap();
+
+    /**
+     * Number of bit sets that are interned.
+     */
+    private long interned;
+
+    /**
+     * @return the bit set in this pool that is equal to given bit set.
+     * If there is none, {@code set} is added to the pool.
+     */
+    SparseBitSet intern(SparseBitSet set) {
+        ++interned;
+        return sets.computeIfAbsent(set, s -> s);
+    }
+
+    /**
+     * @return the number of interned bit sets.
+     */
+    long getInterned() {
+        return interned;
+    }
+
+    /**
+     * @return the number of distinct bit sets in this pool.
+     */
+    int size() {
+        return sets.size();
+    }
+}
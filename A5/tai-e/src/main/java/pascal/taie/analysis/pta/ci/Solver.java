@@ -32,24 +32,55 @@ import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Levels of wave propagation that have fewer pointers than this
+     * are processed sequentially.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final AnalysisOptions options;
+
     private final HeapModel heapModel;
 
+    /**
+     * Filter of the objects propagated along PFG edges, or null if
+     * option {@code type-filter} is disabled.
+     */
+    private TypeFilter typeFilter;
+
     private DefaultCallGraph callGraph;
 
+    private ObjIndexer objIndexer;
+
     private PointerFlowGraph pointerFlowGraph;
 
     private WorkList workList;
@@ -58,7 +89,47 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * Number of objects propagated by the processed entries, i.e.,
+     * the sizes of the deltas.
+     */
+    private long deltaObjects;
+
+    /**
+     * Number of objects that propagating the whole points-to sets
+     * (instead of the deltas) would additionally propagate.
+     */
+    private long skippedObjects;
+
+    /**
+     * PFG edges that have been checked by lazy cycle detection.
+     */
+    private final Set<Pair<Pointer, Pointer>> checkedEdges = Sets.newSet();
+
+    /**
+     * Cycles found by hybrid cycle detection: (p, (f, v)) means that
+     * o.f (or the array index of o if f is null) is in a cycle with v
+     * for each object o pointed to by p.
+     */
+    private final MultiMap<Var, Pair<JField, Var>> derefCycles = Maps.newMultiMap();
+
+    /**
+     * Number of pointers that are collapsed into other pointers.
+     */
+    private long collapsedPointers;
+
+    /**
+     * Number of variables merged by hash-based value numbering.
+     */
+    private long mergedVars;
+
+    /**
+     * Number of waves of wave propagation.
+     */
+    private long waves;
+
+    Solver(AnalysisOptions options, HeapModel heapModel) {
+        this.options = options;
         this.heapModel = heapModel;
     }
 
@@ -67,18 +138,79 @@ class Solver {
      */
     void solve() {
         initialize();
-        analyze();
+        if (options.getBooleanOrDefault("parallel", false)) {
+            analyzeInWaves();
+            logger.info("Wave propagation: {} waves", waves);
+        } else {
+            analyze();
+        }
+        logger.info("Difference propagation ({}): {} entries ({} merged," +
+                        " {} processed), {} objects propagated, {} objects skipped",
+                workList.getPolicy(), workList.getEntries(),
+                workList.getMergedEntries(), workList.getPolledEntries(),
+                deltaObjects, skippedObjects);
+        if (typeFilter != null) {
+            logger.info("Type filtering: {} objects filtered out",
+                    typeFilter.getFilteredObjects());
+        }
+        logger.info("Cycle detection: {} pointers collapsed", collapsedPointers);
+        logger.info("Value numbering: {} variables merged", mergedVars);
+        PointsToSetPool pool = internPointsToSets();
+        logger.info("Hash-consing: {} points-to sets share {} distinct sets",
+                pool.getInterned(), pool.size());
+    }
+
+    /**
+     * Interns the points-to sets of all representative pointers, so that
+     * the pointers with equal points-to sets share the same set in result.
+     */
+    private PointsToSetPool internPointsToSets() {
+        PointsToSetPool pool = new PointsToSetPool();
+        pointerFlowGraph.getPointers().forEach(pointer -> {
+            if (pointer.getRep() == pointer) {
+                pointer.getPointsToSet().intern(pool);
+            }
+        });
+        return pool;
+    }
+
+    /**
+     * @return the number of work-list entries merged into the entries
+     * of the same pointers.
+     */
+    long getMergedEntries() {
+        return workList.getMergedEntries();
+    }
+
+    /**
+     * @return the number of objects propagated by difference propagation.
+     */
+    long getDeltaObjects() {
+        return deltaObjects;
+    }
+
+    /**
+     * @return the number of objects skipped by difference propagation.
+     */
+    long getSkippedObjects() {
+        return skippedObjects;
     }
 
     /**
      * Initializes pointer analysis.
      */
     private void initialize() {
-        workList = new WorkList();
-        pointerFlowGraph = new PointerFlowGraph();
+        objIndexer = new ObjIndexer();
+        pointerFlowGraph = new PointerFlowGraph(objIndexer);
+        workList = new WorkList(
+                WorkList.Policy.of(options.getString("work-list")),
+                pointerFlowGraph::computeRanks);
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
+        if (options.getBooleanOrDefault("type-filter", false)) {
+            typeFilter = new TypeFilter(World.get().getTypeSystem());
+        }
         // initialize main method
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
@@ -92,12 +224,77 @@ class Solver {
         // TODO - finish me
         if(!callGraph.contains(method)) {
             callGraph.addReachableMethod(method);
+            HashValueNumbering.findEquivalentVars(method.getIR())
+                    .forEach(pointerFlowGraph::addEquivalentVars);
             for(Stmt stmt: method.getIR().getStmts()) {
                 stmt.accept(stmtProcessor);
             }
+            detectOfflineCycles(method);
         }
     }
 
+    /**
+     * Hybrid cycle detection (offline part). Finds the cycles formed by
+     * the copies, field accesses and array accesses in the method, where
+     * each dereference p.f (p[*] for arrays) is a node. The variables
+     * in a cycle of copies are collapsed immediately. For the cycles
+     * containing dereferences, o.f and the variables are collapsed when
+     * p is found to point to o (see {@link #processObjects(Var, PointsToSet)}).
+     */
+    private void detectOfflineCycles(JMethod method) {
+        SimpleGraph<Object> graph = new SimpleGraph<>();
+        for (Stmt stmt : method.getIR().getStmts()) {
+            if (stmt instanceof Copy copy) {
+                addOfflineEdge(graph, copy.getRValue(), copy.getLValue());
+            } else if (stmt instanceof LoadField load && !load.isStatic()) {
+                Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                addOfflineEdge(graph, new Pair<>(base, load.getFieldRef().resolve()),
+                        load.getLValue());
+            } else if (stmt instanceof StoreField store && !store.isStatic()) {
+                Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                addOfflineEdge(graph, store.getRValue(),
+                        new Pair<>(base, store.getFieldRef().resolve()));
+            } else if (stmt instanceof LoadArray load) {
+                addOfflineEdge(graph, new Pair<Var, JField>(
+                        load.getArrayAccess().getBase(), null), load.getLValue());
+            } else if (stmt instanceof StoreArray store) {
+                addOfflineEdge(graph, store.getRValue(), new Pair<Var, JField>(
+                        store.getArrayAccess().getBase(), null));
+            }
+        }
+        for (List<Object> cycle : new SCC<>(graph).getTrueComponents()) {
+            List<Pointer> vars = new ArrayList<>();
+            List<Pair<Var, JField>> derefs = new ArrayList<>();
+            for (Object node : cycle) {
+                if (node instanceof Var var) {
+                    vars.add(pointerFlowGraph.getVarPtr(var));
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Pair<Var, JField> deref = (Pair<Var, JField>) node;
+                    derefs.add(deref);
+                }
+            }
+            if (derefs.isEmpty()) {
+                collapse(vars);
+            } else if (derefs.size() == 1) {
+                // the cycle exists only when the base points to some objects
+                Pair<Var, JField> deref = derefs.get(0);
+                for (Pointer var : vars) {
+                    derefCycles.put(deref.first(),
+                            new Pair<>(deref.second(), ((VarPtr) var).getVar()));
+                }
+            }
+            // cycles with multiple dereferences are left to lazy cycle detection
+        }
+    }
+
+    private static void addOfflineEdge(SimpleGraph<Object> graph,
+                                       Object source, Object target) {
+        graph.addNode(source);
+        graph.addNode(target);
+        graph.addEdge(source, target);
+    }
+
     /**
      * Processes statements in new reachable methods.
      */
@@ -106,7 +303,7 @@ class Solver {
         //  via visitor pattern, then finish me
 
         public Void visit(New stmt) {
-            workList.addEntry(pointerFlowGraph.getVarPtr(stmt.getLValue()), new PointsToSet(heapModel.getObj(stmt)));
+            workList.addEntry(pointerFlowGraph.getVarPtr(stmt.getLValue()), new PointsToSet(objIndexer, heapModel.getObj(stmt)));
             return null;
         }
 
@@ -115,6 +312,14 @@ class Solver {
             return null;
         }
 
+        public Void visit(Cast stmt) {
+            // casts are only modeled when the objects can be filtered by types
+            if(typeFilter != null && stmt.getLValue().getType() instanceof ReferenceType) {
+                addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue().getValue()), pointerFlowGraph.getVarPtr(stmt.getLValue()));
+            }
+            return null;
+        }
+
         public Void visit(LoadField stmt) {
             if(stmt.isStatic()) {
                 JField field = stmt.getFieldRef().resolve();
@@ -145,50 +350,414 @@ class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if(!pointerFlowGraph.getSuccsOf(source).contains(target)) {
-            pointerFlowGraph.addEdge(source, target);
+        if(pointerFlowGraph.addEdge(source, target)) {
             if(!source.getPointsToSet().isEmpty()) {
-                workList.addEntry(target, source.getPointsToSet());
+                addEntry(target, source.getPointsToSet());
             }
         }
     }
 
+    /**
+     * Adds an entry for the objects flowing along a PFG edge to target,
+     * which are filtered by the type of target if type filtering is enabled.
+     */
+    private void addEntry(Pointer target, PointsToSet pts) {
+        workList.addEntry(target, typeFilter != null ? typeFilter.filter(pts, target) : pts);
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
         // TODO - finish me
+        mergeEquivalentVars();
         while(!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
-            if(entry.pointer() instanceof VarPtr varPtr) {
-                Var var = varPtr.getVar();
-                for(Obj obj : delta) {
-                    var.getStoreFields().forEach(stmt-> addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()), pointerFlowGraph.getInstanceField(obj, stmt.getFieldRef().resolve())));
-                    var.getLoadFields().forEach(stmt-> addPFGEdge(pointerFlowGraph.getInstanceField(obj, stmt.getFieldRef().resolve()), pointerFlowGraph.getVarPtr(stmt.getLValue())));
-                    var.getStoreArrays().forEach(stmt-> addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()), pointerFlowGraph.getArrayIndex(obj)));
-                    var.getLoadArrays().forEach(stmt-> addPFGEdge(pointerFlowGraph.getArrayIndex(obj), pointerFlowGraph.getVarPtr(stmt.getLValue())));
-                    processCall(var, obj);
+            if(!delta.isEmpty()) {
+                // the pointers collapsed with entry.pointer() share the delta
+                for(Pointer member : List.copyOf(pointerFlowGraph.getMembersOf(entry.pointer()))) {
+                    if(member instanceof VarPtr varPtr) {
+                        processObjects(varPtr.getVar(), delta);
+                    }
                 }
+                detectCycles(entry.pointer());
             }
+            mergeEquivalentVars();
+        }
+    }
+
+    /**
+     * Parallel alternative to {@link #analyze()} based on wave propagation.
+     * Each wave
+     * <ol>
+     *     <li>takes all entries in the work list as seeds, and collapses
+     *     the cycles in the part of PFG reachable from the seeds;</li>
+     *     <li>propagates the new objects level by level in topological
+     *     order of the strongly connected components of the part, where
+     *     each pointer pulls the deltas of its predecessors, thus the
+     *     components in one level are processed in parallel. The cycles
+     *     that cannot be collapsed (see {@link #collapse(Collection)})
+     *     are iterated to a local fixpoint;</li>
+     *     <li>processes the field accesses, array accesses and calls for
+     *     the deltas sequentially, which adds new PFG edges and entries
+     *     for next wave.</li>
+     * </ol>
+     * The result is the same as {@link #analyze()}.
+     */
+    private void analyzeInWaves() {
+        mergeEquivalentVars();
+        while(!workList.isEmpty()) {
+            ++waves;
+            Map<Pointer, PointsToSet> seeds = Maps.newMap();
+            SimpleGraph<Pointer> graph;
+            do {
+                takeSeeds(seeds);
+                graph = buildReachableGraph(seeds.keySet());
+            } while(collapseCycles(graph) || !workList.isEmpty());
+            Map<Pointer, PointsToSet> deltas = propagateWave(graph, seeds);
+            deltas.forEach((rep, delta) -> {
+                for(Pointer member : List.copyOf(pointerFlowGraph.getMembersOf(rep))) {
+                    if(member instanceof VarPtr varPtr) {
+                        processObjects(varPtr.getVar(), delta);
+                    }
+                }
+            });
+            mergeEquivalentVars();
+        }
+    }
+
+    /**
+     * Moves the entries in the work list to seeds, which are keyed by
+     * the representatives of the pointers.
+     */
+    private void takeSeeds(Map<Pointer, PointsToSet> seeds) {
+        if(seeds.keySet().stream().anyMatch(p -> p.getRep() != p)) {
+            // some seeds have been collapsed
+            Map<Pointer, PointsToSet> oldSeeds = Map.copyOf(seeds);
+            seeds.clear();
+            oldSeeds.forEach((pointer, pts) -> addSeed(seeds, pointer, pts));
+        }
+        while(!workList.isEmpty()) {
+            WorkList.Entry entry = workList.pollEntry();
+            addSeed(seeds, entry.pointer(), entry.pointsToSet());
         }
     }
 
+    private static void addSeed(Map<Pointer, PointsToSet> seeds,
+                                Pointer pointer, PointsToSet pts) {
+        seeds.merge(pointer.getRep(), pts, (pts1, pts2) -> {
+            pts1.addAll(pts2);
+            return pts1;
+        });
+    }
+
+    /**
+     * @return the part of PFG reachable from given representatives.
+     */
+    private SimpleGraph<Pointer> buildReachableGraph(Collection<Pointer> roots) {
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        for(Pointer root : roots) {
+            if(!graph.hasNode(root)) {
+                graph.addNode(root);
+                stack.push(root);
+            }
+        }
+        while(!stack.isEmpty()) {
+            Pointer pointer = stack.pop();
+            for(Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
+                if(!graph.hasNode(succ)) {
+                    graph.addNode(succ);
+                    stack.push(succ);
+                }
+                graph.addEdge(pointer, succ);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Collapses the cycles in given graph.
+     *
+     * @return true if any cycle is collapsed.
+     */
+    private boolean collapseCycles(SimpleGraph<Pointer> graph) {
+        boolean collapsed = false;
+        for(List<Pointer> cycle : new SCC<>(graph).getTrueComponents()) {
+            collapsed |= collapse(cycle);
+        }
+        return collapsed;
+    }
+
+    /**
+     * Propagates the seeds through given graph.
+     *
+     * @return the objects newly pointed to by each pointer in this wave.
+     */
+    private Map<Pointer, PointsToSet> propagateWave(
+            SimpleGraph<Pointer> graph, Map<Pointer, PointsToSet> seeds) {
+        Map<Pointer, PointsToSet> deltas = Maps.newMap();
+        seeds.forEach((rep, pts) -> addDelta(deltas, rep,
+                rep.getPointsToSet().addAllDiff(pts)));
+        for(List<List<Pointer>> level : getTopologicalLevels(graph)) {
+            // the components in a level only modify the points-to sets of
+            // their own pointers, and only read the deltas of the pointers
+            // in previous levels
+            List<Map<Pointer, PointsToSet>> levelDeltas = (level.size() < PARALLEL_THRESHOLD ?
+                    level.stream() : level.parallelStream())
+                    .map(component -> propagateComponent(graph, deltas, component))
+                    .toList();
+            levelDeltas.forEach(componentDeltas -> componentDeltas.forEach(
+                    (pointer, delta) -> addDelta(deltas, pointer, delta)));
+        }
+        return deltas;
+    }
+
+    /**
+     * Propagates the deltas of the previous levels to the pointers in
+     * a strongly connected component. A component of multiple pointers
+     * is a cycle that is not collapsed, and inside it, the pointers pull
+     * the whole points-to sets of each other until none of them changes.
+     *
+     * @return the objects newly pointed to by each pointer in the component.
+     */
+    private Map<Pointer, PointsToSet> propagateComponent(
+            SimpleGraph<Pointer> graph, Map<Pointer, PointsToSet> deltas,
+            List<Pointer> component) {
+        if(component.size() == 1) {
+            Pointer pointer = component.get(0);
+            PointsToSet delta = pullDeltas(graph, deltas, pointer);
+            return delta != null ? Map.of(pointer, delta) : Map.of();
+        }
+        Set<Pointer> members = Set.copyOf(component);
+        Map<Pointer, PointsToSet> componentDeltas = Maps.newMap();
+        Deque<Pointer> queue = new ArrayDeque<>(component);
+        Set<Pointer> inQueue = Sets.newSet();
+        inQueue.addAll(component);
+        while(!queue.isEmpty()) {
+            Pointer pointer = queue.poll();
+            inQueue.remove(pointer);
+            PointsToSet pts = new PointsToSet(objIndexer);
+            for(Pointer pred : graph.getPredsOf(pointer)) {
+                PointsToSet predPts = members.contains(pred) ?
+                        pred.getPointsToSet() : deltas.get(pred);
+                if(predPts != null) {
+                    pts.addAll(typeFilter != null ? typeFilter.filter(predPts, pointer) : predPts);
+                }
+            }
+            PointsToSet delta = pointer.getPointsToSet().addAllDiff(pts);
+            if(!delta.isEmpty()) {
+                componentDeltas.merge(pointer, delta, (delta1, delta2) -> {
+                    delta1.addAll(delta2);
+                    return delta1;
+                });
+                for(Pointer succ : graph.getSuccsOf(pointer)) {
+                    if(members.contains(succ) && inQueue.add(succ)) {
+                        queue.add(succ);
+                    }
+                }
+            }
+        }
+        return componentDeltas;
+    }
+
+    /**
+     * @return the objects newly pointed to by pointer from the deltas
+     * of its predecessors, or null if none of its predecessors changes.
+     */
+    private PointsToSet pullDeltas(SimpleGraph<Pointer> graph,
+                                   Map<Pointer, PointsToSet> deltas,
+                                   Pointer pointer) {
+        PointsToSet pts = new PointsToSet(objIndexer);
+        for(Pointer pred : graph.getPredsOf(pointer)) {
+            PointsToSet delta = deltas.get(pred);
+            if(delta != null) {
+                pts.addAll(typeFilter != null ? typeFilter.filter(delta, pointer) : delta);
+            }
+        }
+        return pts.isEmpty() ? null : pointer.getPointsToSet().addAllDiff(pts);
+    }
+
+    private void addDelta(Map<Pointer, PointsToSet> deltas,
+                          Pointer pointer, PointsToSet delta) {
+        deltaObjects += delta.size();
+        skippedObjects += pointer.getPointsToSet().size() - delta.size();
+        if(!delta.isEmpty()) {
+            PointsToSet oldDelta = deltas.get(pointer);
+            if(oldDelta != null) {
+                delta.addAll(oldDelta);
+            }
+            // store a copy marked as shared, so that reading it
+            // in parallel never writes it
+            deltas.put(pointer, delta.copy());
+        }
+    }
+
+    /**
+     * @return the strongly connected components of given graph grouped
+     * by levels, where the predecessors of the pointers in each component
+     * are in the same component or in the components of previous levels.
+     */
+    private static List<List<List<Pointer>>> getTopologicalLevels(SimpleGraph<Pointer> graph) {
+        List<List<Pointer>> components = new SCC<>(graph).getComponents();
+        Map<Pointer, Integer> componentOf = Maps.newMap();
+        for(int i = 0; i < components.size(); ++i) {
+            for(Pointer pointer : components.get(i)) {
+                componentOf.put(pointer, i);
+            }
+        }
+        int[] inDegrees = new int[components.size()];
+        for(Pointer pointer : graph.getNodes()) {
+            int component = componentOf.get(pointer);
+            for(Pointer succ : graph.getSuccsOf(pointer)) {
+                int succComponent = componentOf.get(succ);
+                if(succComponent != component) {
+                    ++inDegrees[succComponent];
+                }
+            }
+        }
+        List<Integer> level = new ArrayList<>();
+        for(int i = 0; i < components.size(); ++i) {
+            if(inDegrees[i] == 0) {
+                level.add(i);
+            }
+        }
+        List<List<List<Pointer>>> levels = new ArrayList<>();
+        while(!level.isEmpty()) {
+            levels.add(level.stream().map(components::get).toList());
+            List<Integer> nextLevel = new ArrayList<>();
+            for(int component : level) {
+                for(Pointer pointer : components.get(component)) {
+                    for(Pointer succ : graph.getSuccsOf(pointer)) {
+                        int succComponent = componentOf.get(succ);
+                        if(succComponent != component &&
+                                --inDegrees[succComponent] == 0) {
+                            nextLevel.add(succComponent);
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        return levels;
+    }
+
+    /**
+     * Collapses the Var nodes of pointer-equivalent variables found
+     * by {@link HashValueNumbering}.
+     */
+    private void mergeEquivalentVars() {
+        List<Pair<VarPtr, VarPtr>> pairs;
+        while(!(pairs = pointerFlowGraph.takeEquivalentVarPtrs()).isEmpty()) {
+            for(Pair<VarPtr, VarPtr> pair : pairs) {
+                if(pair.first().getRep() != pair.second().getRep() &&
+                        collapse(List.of(pair.first(), pair.second()))) {
+                    ++mergedVars;
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the field accesses, array accesses and instance calls
+     * on var for the objects newly pointed to by var.
+     */
+    private void processObjects(Var var, PointsToSet objs) {
+        for(Obj obj : objs) {
+            var.getStoreFields().forEach(stmt-> addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()), pointerFlowGraph.getInstanceField(obj, stmt.getFieldRef().resolve())));
+            var.getLoadFields().forEach(stmt-> addPFGEdge(pointerFlowGraph.getInstanceField(obj, stmt.getFieldRef().resolve()), pointerFlowGraph.getVarPtr(stmt.getLValue())));
+            var.getStoreArrays().forEach(stmt-> addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()), pointerFlowGraph.getArrayIndex(obj)));
+            var.getLoadArrays().forEach(stmt-> addPFGEdge(pointerFlowGraph.getArrayIndex(obj), pointerFlowGraph.getVarPtr(stmt.getLValue())));
+            processCall(var, obj);
+        }
+        // hybrid cycle detection (online part)
+        for(Pair<JField, Var> cycle : derefCycles.get(var)) {
+            Pointer target = pointerFlowGraph.getVarPtr(cycle.second());
+            for(Obj obj : objs) {
+                Pointer deref = cycle.first() != null ?
+                        pointerFlowGraph.getInstanceField(obj, cycle.first()) :
+                        pointerFlowGraph.getArrayIndex(obj);
+                collapse(List.of(deref, target));
+            }
+        }
+    }
+
+    /**
+     * Lazy cycle detection. An edge whose source and target have
+     * the same points-to set is likely in a cycle, thus the cycles
+     * reachable from the target are searched and collapsed.
+     * Each edge is checked at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        Pointer rep = pointer.getRep();
+        PointsToSet pts = rep.getPointsToSet();
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(rep)) {
+            if(succ.getPointsToSet().equals(pts) &&
+                    checkedEdges.add(new Pair<>(rep, succ))) {
+                pointerFlowGraph.findCycles(succ).forEach(this::collapse);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collapses given pointers into one representative, merges their
+     * points-to sets, and processes the objects that are new to each
+     * of the collapsed pointers.
+     *
+     * @return true if the pointers are collapsed, otherwise false.
+     */
+    private boolean collapse(Collection<Pointer> pointers) {
+        // points-to sets and members of the representatives before collapsing
+        Map<Pointer, Pair<PointsToSet, List<Pointer>>> groups = Maps.newMap();
+        for(Pointer pointer : pointers) {
+            Pointer rep = pointer.getRep();
+            if(!groups.containsKey(rep)) {
+                groups.put(rep, new Pair<>(rep.getPointsToSet().copy(),
+                        List.copyOf(pointerFlowGraph.getMembersOf(rep))));
+            }
+        }
+        if(groups.size() < 2) {
+            return false;
+        }
+        if(typeFilter != null && groups.keySet().stream()
+                .map(Pointer::getType).distinct().count() > 1) {
+            // pointers of different types may have different points-to sets
+            // after filtering, thus they are not collapsed
+            return false;
+        }
+        collapsedPointers += groups.size() - 1;
+        Pointer rep = pointerFlowGraph.collapse(groups.keySet());
+        PointsToSet pts = rep.getPointsToSet();
+        groups.values().forEach(group -> pts.addAll(group.first()));
+        groups.values().forEach(group -> {
+            PointsToSet diff = group.first().addAllDiff(pts);
+            if(!diff.isEmpty()) {
+                for(Pointer member : group.second()) {
+                    if(member instanceof VarPtr varPtr) {
+                        processObjects(varPtr.getVar(), diff);
+                    }
+                }
+            }
+        });
+        if(!pts.isEmpty()) {
+            pointerFlowGraph.getSuccsOf(rep).forEach(succ -> addEntry(succ, pts));
+        }
+        return true;
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet delta = new PointsToSet();
-        pointsToSet.forEach(obj->{
-            if(!pointer.getPointsToSet().contains(obj)) {
-                delta.addObject(obj);
-            }
-        });
+        PointsToSet delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        deltaObjects += delta.size();
+        skippedObjects += pointer.getPointsToSet().size() - delta.size();
         if(!delta.isEmpty()) {
-            delta.forEach(obj-> pointer.getPointsToSet().addObject(obj));
-            pointerFlowGraph.getSuccsOf(pointer).forEach(succ-> workList.addEntry(succ, delta));
+            pointerFlowGraph.getSuccsOf(pointer).forEach(succ-> addEntry(succ, delta));
         }
         return delta;
     }
@@ -203,7 +772,7 @@ class Solver {
         // TODO - finish me
         var.getInvokes().forEach(stmt->{
             JMethod method = resolveCallee(recv, stmt);
-            workList.addEntry(pointerFlowGraph.getVarPtr(method.getIR().getThis()), new PointsToSet(recv));
+            workList.addEntry(pointerFlowGraph.getVarPtr(method.getIR().getThis()), new PointsToSet(objIndexer, recv));
             _ProcessCall(null, stmt, method);
         });
     }
@@ -254,6 +823,8 @@ class Solver {
     }
 
     CIPTAResult getResult() {
-        return new CIPTAResult(pointerFlowGraph, callGraph);
+        callGraph.freeze();
+        return new CIPTAResult(pointerFlowGraph, callGraph,
+                getMergedEntries(), getDeltaObjects(), getSkippedObjects());
     }
 }
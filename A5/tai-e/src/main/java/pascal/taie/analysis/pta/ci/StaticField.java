@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.ci;
 
 import pascal.taie.language.classes.JField;
+import pascal.taie.language.type.Type;
 
 /**
  * Represents static field pointers in PFG.
@@ -31,7 +32,8 @@ class StaticField extends Pointer {
 
     private final JField field;
 
-    StaticField(JField field) {
+    StaticField(JField field, ObjIndexer indexer) {
+        super(indexer);
         this.field = field;
     }
 
@@ -42,6 +44,11 @@ class StaticField extends Pointer {
         return field;
     }
 
+    @Override
+    Type getType() {
+        return field.getType();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Pair;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filters the objects propagated to pointers by the declared types of
+ * the pointers, i.e., a pointer only receives the objects whose types
+ * are subtypes of its type.
+ * <p>
+ * The results of subtype checks are cached for each pair of types.
+ * This class is thread-safe, so that it can be used by parallel
+ * wave propagation.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks: (object type, pointer type) -> result.
+     */
+    private final Map<Pair<Type, Type>, Boolean> subtypes = new ConcurrentHashMap<>();
+
+    /**
+     * Number of objects that are filtered out.
+     */
+    private final LongAdder filteredObjects = new LongAdder();
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in {@code pts} that can be pointed to by pointer.
+     */
+    PointsToSet filter(PointsToSet pts, Pointer pointer) {
+        Type type = pointer.getType();
+        PointsToSet result = pts.filter(obj -> isSubtype(obj.getType(), type));
+        if (result != pts) {
+            filteredObjects.add(pts.size() - result.size());
+        }
+        return result;
+    }
+
+    private boolean isSubtype(Type subtype, Type supertype) {
+        return subtypes.computeIfAbsent(new Pair<>(subtype, supertype),
+                p -> typeSystem.isSubtype(supertype, subtype));
+    }
+
+    long getFilteredObjects() {
+        return filteredObjects.sum();
+    }
+}
@@ -22,21 +22,175 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Maps;
+
 import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.function.Supplier;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The work list holds each pointer at most once. The points-to sets
+ * added for a pointer that is already in the work list are merged into
+ * the delta of the pointer (see {@link Pointer#addDelta(PointsToSet)}),
+ * so that the pointer is processed once for all of them. The order in
+ * which the pointers are processed is decided by {@link Policy}.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Policies of choosing the next pointer to process.
+     */
+    enum Policy {
+        /**
+         * First in, first out.
+         */
+        FIFO,
+        /**
+         * Last in, first out.
+         */
+        LIFO,
+        /**
+         * Least recently fired: the pointer that has not been
+         * processed for the longest time goes first.
+         */
+        LRF,
+        /**
+         * Topological order: the pointers with lower ranks
+         * in the PFG go first.
+         */
+        TOPO,
+        /**
+         * Two-phase: the pointers that only propagate along copy edges
+         * go first, and the variables involved in field accesses, array
+         * accesses or calls (which add new edges) go when there are no
+         * other pointers.
+         */
+        TWO_PHASE;
+
+        /**
+         * @return the policy of given name, e.g., {@code two-phase},
+         * or {@link #FIFO} if the name is null.
+         */
+        static Policy of(String name) {
+            if (name == null) {
+                return FIFO;
+            }
+            try {
+                return valueOf(name.toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new ConfigException("Unexpected work-list policy: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * The ranks are computed on first use (and whenever they are empty,
+     * e.g., before the PFG has any pointers), and recomputed when the
+     * number of added pointers reaches this threshold, which is doubled
+     * each time.
+     */
+    private static final int INITIAL_RANKING_THRESHOLD = 1 << 10;
+
+    private final Policy policy;
+
+    private final Queue<Item> items;
+
+    /**
+     * Computes the ranks of the pointers for {@link Policy#TOPO}.
+     */
+    private final Supplier<Map<Pointer, Integer>> ranker;
+
+    private Map<Pointer, Integer> ranks = Map.of();
+
+    private long rankingThreshold = INITIAL_RANKING_THRESHOLD;
+
+    /**
+     * Map from a pointer to the time when it was processed last,
+     * for {@link Policy#LRF}.
+     */
+    private final Map<Pointer, Long> lastFired = Maps.newMap();
+
+    /**
+     * Number of added entries.
+     */
+    private long entries = 0;
+
+    /**
+     * Number of added entries that are merged into existing entries.
+     */
+    private long mergedEntries = 0;
+
+    /**
+     * Number of processed entries.
+     */
+    private long polledEntries = 0;
+
+    WorkList(Policy policy, Supplier<Map<Pointer, Integer>> ranker) {
+        this.policy = policy;
+        this.ranker = ranker;
+        this.items = switch (policy) {
+            case FIFO -> new ArrayDeque<>();
+            case LIFO -> Collections.asLifoQueue(new ArrayDeque<>());
+            default -> new PriorityQueue<>(Comparator
+                    .comparingLong(Item::key)
+                    .thenComparingLong(Item::seq));
+        };
+    }
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        if (pointsToSet.isEmpty()) {
+            return;
+        }
+        ++entries;
+        if (pointer.addDelta(pointsToSet)) {
+            items.add(new Item(getKey(pointer), entries, pointer));
+        } else {
+            ++mergedEntries;
+        }
+    }
+
+    /**
+     * @return the priority key of given pointer, smaller keys go first.
+     */
+    private long getKey(Pointer pointer) {
+        return switch (policy) {
+            case FIFO, LIFO -> 0;
+            case LRF -> lastFired.getOrDefault(pointer, 0L);
+            case TOPO -> {
+                boolean stale = entries - mergedEntries >= rankingThreshold;
+                if (stale || ranks.isEmpty()) {
+                    ranks = ranker.get();
+                    if (stale) {
+                        rankingThreshold *= 2;
+                    }
+                }
+                yield ranks.getOrDefault(pointer.getRep(), Integer.MAX_VALUE);
+            }
+            case TWO_PHASE -> hasComplexConstraints(pointer) ? 1 : 0;
+        };
+    }
+
+    private static boolean hasComplexConstraints(Pointer pointer) {
+        if (pointer instanceof VarPtr varPtr) {
+            Var var = varPtr.getVar();
+            return !var.getLoadFields().isEmpty() ||
+                    !var.getStoreFields().isEmpty() ||
+                    !var.getLoadArrays().isEmpty() ||
+                    !var.getStoreArrays().isEmpty() ||
+                    !var.getInvokes().isEmpty();
+        }
+        return false;
     }
 
     /**
@@ -44,14 +198,46 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Item item = items.poll();
+        if (item == null) {
+            return null;
+        }
+        ++polledEntries;
+        Pointer pointer = item.pointer();
+        if (policy == Policy.LRF) {
+            lastFired.put(pointer, polledEntries);
+        }
+        return new Entry(pointer, pointer.takeDelta());
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return items.isEmpty();
+    }
+
+    Policy getPolicy() {
+        return policy;
+    }
+
+    long getEntries() {
+        return entries;
+    }
+
+    long getMergedEntries() {
+        return mergedEntries;
+    }
+
+    long getPolledEntries() {
+        return polledEntries;
+    }
+
+    /**
+     * Pointer with its priority key and sequence number (for keeping
+     * the insertion order of the pointers with the same key).
+     */
+    private record Item(long key, long seq, Pointer pointer) {
     }
 
     /**
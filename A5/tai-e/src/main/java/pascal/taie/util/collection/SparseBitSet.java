@@ -0,0 +1,389 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Sparse bit set of non-negative integers.
+ * <p>
+ * The bits are stored in 64-bit words, and only the non-zero words
+ * are kept, in an array sorted by word index, together with the array
+ * of their word indexes. Thus, the memory is proportional to the number
+ * of non-zero words instead of the largest bit, and the set operations
+ * are done word by word via merging the two sorted arrays.
+ */
+public class SparseBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int[] EMPTY_INDEXES = {};
+
+    private static final long[] EMPTY_WORDS = {};
+
+    /**
+     * Sorted indexes of the non-zero words.
+     */
+    private int[] indexes;
+
+    /**
+     * The non-zero words, {@code words[i]} is the word at {@code indexes[i]}.
+     */
+    private long[] words;
+
+    /**
+     * Number of words in use.
+     */
+    private int wordsInUse;
+
+    /**
+     * Number of set bits.
+     */
+    private int cardinality;
+
+    public SparseBitSet() {
+        indexes = EMPTY_INDEXES;
+        words = EMPTY_WORDS;
+    }
+
+    /**
+     * Copy constructor.
+     */
+    public SparseBitSet(SparseBitSet other) {
+        indexes = Arrays.copyOf(other.indexes, other.wordsInUse);
+        words = Arrays.copyOf(other.words, other.wordsInUse);
+        wordsInUse = other.wordsInUse;
+        cardinality = other.cardinality;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    /**
+     * @return the position of given word index in {@link #indexes},
+     * or (-(insertion point) - 1) if it is absent.
+     */
+    private int findWord(int wordIndex) {
+        return Arrays.binarySearch(indexes, 0, wordsInUse, wordIndex);
+    }
+
+    /**
+     * Inserts a zero word at given position.
+     */
+    private void insertWord(int pos, int wordIndex) {
+        if (wordsInUse == indexes.length) {
+            int newLength = Math.max(2, wordsInUse * 2);
+            indexes = Arrays.copyOf(indexes, newLength);
+            words = Arrays.copyOf(words, newLength);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, wordsInUse - pos);
+        System.arraycopy(words, pos, words, pos + 1, wordsInUse - pos);
+        indexes[pos] = wordIndex;
+        words[pos] = 0L;
+        ++wordsInUse;
+    }
+
+    /**
+     * Appends a non-zero word whose index is larger than all words in use.
+     */
+    private void appendWord(int wordIndex, long word) {
+        if (wordsInUse == indexes.length) {
+            int newLength = Math.max(2, wordsInUse * 2);
+            indexes = Arrays.copyOf(indexes, newLength);
+            words = Arrays.copyOf(words, newLength);
+        }
+        indexes[wordsInUse] = wordIndex;
+        words[wordsInUse] = word;
+        ++wordsInUse;
+        cardinality += Long.bitCount(word);
+    }
+
+    /**
+     * Sets the bit at given index.
+     *
+     * @return true if this set changed as a result of the call, otherwise false.
+     */
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        int pos = findWord(wordIndex);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insertWord(pos, wordIndex);
+        }
+        long mask = 1L << bitIndex;
+        if ((words[pos] & mask) != 0) {
+            return false;
+        }
+        words[pos] |= mask;
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * @return true if the bit at given index is set, otherwise false.
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int pos = findWord(wordIndex(bitIndex));
+        return pos >= 0 && (words[pos] & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * @return the number of set bits.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Sets all bits that are set in {@code other}.
+     *
+     * @return true if this set changed as a result of the call, otherwise false.
+     */
+    public boolean or(SparseBitSet other) {
+        // count the words that are absent in this set
+        int absent = 0;
+        for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+            while (i < wordsInUse && indexes[i] < other.indexes[j]) {
+                ++i;
+            }
+            if (i == wordsInUse || indexes[i] != other.indexes[j]) {
+                ++absent;
+            }
+        }
+        int oldCardinality = cardinality;
+        if (absent == 0) { // merge in place
+            for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+                while (indexes[i] < other.indexes[j]) {
+                    ++i;
+                }
+                long word = words[i] | other.words[j];
+                cardinality += Long.bitCount(word) - Long.bitCount(words[i]);
+                words[i] = word;
+            }
+        } else {
+            int length = wordsInUse + absent;
+            int[] newIndexes = new int[length];
+            long[] newWords = new long[length];
+            int i = 0, j = 0, k = 0;
+            while (i < wordsInUse || j < other.wordsInUse) {
+                if (j == other.wordsInUse ||
+                        (i < wordsInUse && indexes[i] < other.indexes[j])) {
+                    newIndexes[k] = indexes[i];
+                    newWords[k] = words[i++];
+                } else if (i == wordsInUse || other.indexes[j] < indexes[i]) {
+                    newIndexes[k] = other.indexes[j];
+                    newWords[k] = other.words[j++];
+                    cardinality += Long.bitCount(newWords[k]);
+                } else {
+                    newIndexes[k] = indexes[i];
+                    newWords[k] = words[i] | other.words[j];
+                    cardinality += Long.bitCount(newWords[k]) -
+                            Long.bitCount(words[i]);
+                    ++i;
+                    ++j;
+                }
+                ++k;
+            }
+            indexes = newIndexes;
+            words = newWords;
+            wordsInUse = length;
+        }
+        return cardinality != oldCardinality;
+    }
+
+    /**
+     * @return true if this set and {@code other} have any common set bit.
+     * The words of the smaller set are looked up in the larger one, thus
+     * it takes O(min(m, n) * log(max(m, n))) time for sets of m and n words.
+     */
+    public boolean intersects(SparseBitSet other) {
+        SparseBitSet small = wordsInUse <= other.wordsInUse ? this : other;
+        SparseBitSet large = small == this ? other : this;
+        for (int i = 0; i < small.wordsInUse; ++i) {
+            int pos = large.findWord(small.indexes[i]);
+            if (pos >= 0 && (small.words[i] & large.words[pos]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a new set of the bits that are set in {@code other}
+     * but not in this set.
+     */
+    public SparseBitSet diff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet();
+        for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+            while (i < wordsInUse && indexes[i] < other.indexes[j]) {
+                ++i;
+            }
+            long word = other.words[j];
+            if (i < wordsInUse && indexes[i] == other.indexes[j]) {
+                word &= ~words[i];
+            }
+            if (word != 0) {
+                diff.appendWord(other.indexes[j], word);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Sets all bits that are set in {@code other}.
+     *
+     * @return a new set of the bits that are newly set by this call.
+     */
+    public SparseBitSet orDiff(SparseBitSet other) {
+        SparseBitSet diff = diff(other);
+        if (!diff.isEmpty()) {
+            or(diff);
+        }
+        return diff;
+    }
+
+    /**
+     * @return the index of the first set bit that occurs on or after
+     * given index, or -1 if there is no such bit.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int pos = findWord(wordIndex(fromIndex));
+        long word;
+        if (pos >= 0) {
+            word = words[pos] & (-1L << fromIndex);
+        } else {
+            pos = -pos - 1;
+            if (pos == wordsInUse) {
+                return -1;
+            }
+            word = words[pos];
+        }
+        while (word == 0) {
+            if (++pos == wordsInUse) {
+                return -1;
+            }
+            word = words[pos];
+        }
+        return (indexes[pos] << ADDRESS_BITS_PER_WORD) +
+                Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Performs the given action for the index of each set bit
+     * in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < wordsInUse; ++i) {
+            int base = indexes[i] << ADDRESS_BITS_PER_WORD;
+            long word = words[i];
+            while (word != 0) {
+                action.accept(base + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return an iterator over the indexes of the set bits in ascending order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int pos = 0;
+
+            private long word = wordsInUse > 0 ? words[0] : 0L;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && pos + 1 < wordsInUse) {
+                    word = words[++pos];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bitIndex = (indexes[pos] << ADDRESS_BITS_PER_WORD) +
+                        Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return bitIndex;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SparseBitSet other)) {
+            return false;
+        }
+        return Arrays.equals(indexes, 0, wordsInUse,
+                other.indexes, 0, other.wordsInUse) &&
+                Arrays.equals(words, 0, wordsInUse,
+                        other.words, 0, other.wordsInUse);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < wordsInUse; ++i) {
+            h = 31 * h + indexes[i];
+            h = 31 * h + Long.hashCode(words[i]);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach(i -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(i);
+        });
+        return sb.append('}').toString();
+    }
+}
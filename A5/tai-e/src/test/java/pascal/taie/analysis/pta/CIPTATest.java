@@ -22,13 +22,35 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.ci.CIPTA;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class CIPTATest {
 
     static final String DIR = "cipta";
 
+    /**
+     * Test cases whose results are expected to be the same
+     * under all options of the solver.
+     */
+    static final List<String> CASES = List.of("Example", "Array", "Assign",
+            "StoreLoad", "Call", "InstanceField", "StaticField",
+            "StaticCall", "MergeParam");
+
     @Test
     public void testExample() {
         Tests.testCIPTA(DIR, "Example");
@@ -79,4 +101,102 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testParallel() {
+        CASES.forEach(main -> Tests.testCIPTA(DIR, main, "parallel:true"));
+    }
+
+    @Test
+    public void testWorkListLIFO() {
+        testWorkList("lifo");
+    }
+
+    @Test
+    public void testWorkListLRF() {
+        testWorkList("lrf");
+    }
+
+    @Test
+    public void testWorkListTopo() {
+        testWorkList("topo");
+    }
+
+    @Test
+    public void testWorkListTwoPhase() {
+        testWorkList("two-phase");
+    }
+
+    /**
+     * The work-list policy only affects the order of propagation,
+     * thus the results are the same as the default (FIFO) policy.
+     */
+    private static void testWorkList(String policy) {
+        CASES.forEach(main -> Tests.testCIPTA(DIR, main, "work-list:" + policy));
+    }
+
+    /**
+     * With type filtering, the objects flowing to a pointer are filtered
+     * by its declared type, thus in TypeFilter, each cast variable points
+     * to fewer objects than the variable it casts. In TypeFilter.loop(),
+     * the cast is in a cycle of pointers of different types, which is not
+     * collapsed, and it must be filtered in wave propagation as well.
+     */
+    @Test
+    public void testTypeFilter() {
+        for (String parallel : List.of("false", "true")) {
+            Main.main(new String[]{
+                    "-pp", "-cp", "src/test/resources/pta/" + DIR, "-m", "TypeFilter",
+                    "-a", CIPTA.ID + "=implicit-entries:false;only-app:true;" +
+                    "type-filter:true;parallel:" + parallel});
+            PointerAnalysisResult result = World.get().getResult(CIPTA.ID);
+            int casts = 0;
+            for (JMethod method : World.get().getClassHierarchy()
+                    .getClass("TypeFilter").getDeclaredMethods()) {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof Cast cast) {
+                        ++casts;
+                        Set<Obj> from = result.getPointsToSet(cast.getRValue().getValue());
+                        Set<Obj> to = result.getPointsToSet(cast.getLValue());
+                        Type type = cast.getRValue().getCastType();
+                        String message = cast + " (parallel: " + parallel + ")";
+                        Assert.assertFalse(message, to.isEmpty());
+                        Assert.assertTrue(message, from.containsAll(to));
+                        Assert.assertTrue(message, to.size() < from.size());
+                        Assert.assertTrue(message, to.stream().allMatch(obj ->
+                                World.get().getTypeSystem().isSubtype(type, obj.getType())));
+                    }
+                }
+            }
+            Assert.assertEquals(3, casts);
+        }
+    }
+
+    /**
+     * The reverse points-to and alias queries are answered by an index
+     * built on the first query, which must agree with the points-to sets.
+     * The first queries are issued in parallel.
+     */
+    @Test
+    public void testAliasQueries() {
+        CASES.forEach(main -> {
+            Tests.testCIPTA(DIR, main);
+            PointerAnalysisResult result = World.get().getResult(CIPTA.ID);
+            List<Var> vars = List.copyOf(result.getVars());
+            vars.parallelStream().forEach(v1 -> vars.forEach(v2 -> {
+                Set<Obj> pts1 = result.getPointsToSet(v1);
+                Set<Obj> pts2 = result.getPointsToSet(v2);
+                Assert.assertEquals(main + ": " + v1 + ", " + v2,
+                        pts1.stream().anyMatch(pts2::contains),
+                        result.mayAlias(v1, v2));
+            }));
+            for (Obj obj : result.getObjects()) {
+                Set<Var> expected = vars.stream()
+                        .filter(v -> result.getPointsToSet(v).contains(obj))
+                        .collect(Collectors.toSet());
+                Assert.assertEquals(main + ": " + obj,
+                        expected, result.getVarsPointingTo(obj));
+            }
+        });
+    }
 }
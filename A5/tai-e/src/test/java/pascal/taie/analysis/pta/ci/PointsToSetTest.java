@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.Optional;
+
+public class PointsToSetTest {
+
+    /**
+     * Querying an object that has not been added to any points-to set
+     * answers false and does not number the object.
+     */
+    @Test
+    public void testContainsUnknown() {
+        ObjIndexer indexer = new ObjIndexer();
+        Obj o1 = new MockObj("o1"), o2 = new MockObj("o2");
+        PointsToSet pts = new PointsToSet(indexer, o1);
+        Assert.assertTrue(pts.contains(o1));
+        Assert.assertFalse(pts.contains(o2));
+        Assert.assertEquals(1, indexer.size());
+        Assert.assertEquals(-1, indexer.findID(o2));
+        pts.addObject(o2);
+        Assert.assertTrue(pts.contains(o2));
+        Assert.assertEquals(1, indexer.findID(o2));
+    }
+
+    record MockObj(String name) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return name;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+public class SolverTest {
+
+    /**
+     * In MergeParam, the objects of a1 and a2 are added to the entry of
+     * {@code A.<init>/%this} before it is processed, so the entries are
+     * merged. In Assign, a1 points to the new A before the new B flows
+     * to it, so only the new B is propagated from a1 the second time.
+     */
+    @Test
+    public void testDifferencePropagation() {
+        CIPTAResult mergeParam = analyze("MergeParam");
+        Assert.assertTrue(mergeParam.getMergedEntries() > 0);
+        Assert.assertTrue(mergeParam.getDeltaObjects() > 0);
+        CIPTAResult assign = analyze("Assign");
+        Assert.assertTrue(assign.getSkippedObjects() > 0);
+        Assert.assertTrue(assign.getDeltaObjects() > 0);
+    }
+
+    private static CIPTAResult analyze(String main) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/cipta", "-m", main,
+                "-a", CIPTA.ID + "=implicit-entries:false;only-app:true"});
+        return World.get().getResult(CIPTA.ID);
+    }
+}
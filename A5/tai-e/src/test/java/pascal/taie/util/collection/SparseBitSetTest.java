@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SparseBitSetTest {
+
+    private static final int ROUNDS = 2000;
+
+    /**
+     * Sets in the tests are randomly built from a fixed seed,
+     * so that failures are reproducible.
+     */
+    private final Random random = new Random(20220423);
+
+    @Test
+    public void testSet() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected = new BitSet();
+            SparseBitSet set = new SparseBitSet();
+            for (int i = random.nextInt(64); i > 0; --i) {
+                int bit = randomBit();
+                assertEquals(!expected.get(bit), set.set(bit));
+                expected.set(bit);
+            }
+            assertBits(expected, set);
+            for (int i = 0; i < 16; ++i) {
+                int bit = randomBit();
+                assertEquals(expected.get(bit), set.get(bit));
+                assertEquals(expected.nextSetBit(bit), set.nextSetBit(bit));
+            }
+        }
+    }
+
+    @Test
+    public void testOr() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected1 = randomBitSet(), expected2 = randomBitSet();
+            SparseBitSet set1 = toSparse(expected1), set2 = toSparse(expected2);
+            BitSet expected = (BitSet) expected1.clone();
+            expected.or(expected2);
+            assertEquals(!expected.equals(expected1), set1.or(set2));
+            assertBits(expected, set1);
+            assertBits(expected2, set2);
+        }
+    }
+
+    @Test
+    public void testDiff() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected1 = randomBitSet(), expected2 = randomBitSet();
+            SparseBitSet set1 = toSparse(expected1), set2 = toSparse(expected2);
+            BitSet expected = (BitSet) expected2.clone();
+            expected.andNot(expected1);
+            assertBits(expected, set1.diff(set2));
+            assertBits(expected1, set1);
+            assertBits(expected2, set2);
+        }
+    }
+
+    @Test
+    public void testOrDiff() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected1 = randomBitSet(), expected2 = randomBitSet();
+            SparseBitSet set1 = toSparse(expected1), set2 = toSparse(expected2);
+            BitSet expectedDiff = (BitSet) expected2.clone();
+            expectedDiff.andNot(expected1);
+            assertBits(expectedDiff, set1.orDiff(set2));
+            expected1.or(expected2);
+            assertBits(expected1, set1);
+            assertBits(expected2, set2);
+        }
+    }
+
+    @Test
+    public void testIntersects() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected1 = randomBitSet(), expected2 = randomBitSet();
+            SparseBitSet set1 = toSparse(expected1), set2 = toSparse(expected2);
+            assertEquals(expected1.intersects(expected2), set1.intersects(set2));
+            assertEquals(expected2.intersects(expected1), set2.intersects(set1));
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        for (int round = 0; round < ROUNDS; ++round) {
+            BitSet expected = randomBitSet();
+            SparseBitSet set = toSparse(expected);
+            SparseBitSet copy = new SparseBitSet(set);
+            assertEquals(set, copy);
+            assertEquals(set.hashCode(), copy.hashCode());
+            int bit = randomBit();
+            copy.set(bit);
+            assertBits(expected, set);
+        }
+    }
+
+    /**
+     * @return a random bit set, whose bits are clustered in a few ranges,
+     * so that the sparse bit sets have both shared and distinct words.
+     */
+    private BitSet randomBitSet() {
+        BitSet set = new BitSet();
+        for (int clusters = random.nextInt(4); clusters > 0; --clusters) {
+            int start = randomBit();
+            int length = 1 + random.nextInt(256);
+            for (int i = random.nextInt(length); i > 0; --i) {
+                set.set(start + random.nextInt(length));
+            }
+        }
+        return set;
+    }
+
+    private int randomBit() {
+        return random.nextInt(1 << 12);
+    }
+
+    private static SparseBitSet toSparse(BitSet bitSet) {
+        SparseBitSet set = new SparseBitSet();
+        bitSet.stream().forEach(set::set);
+        return set;
+    }
+
+    /**
+     * Asserts that given sparse bit set has the same bits as given bit set,
+     * which are checked via its iterator, cardinality and forEach().
+     */
+    private static void assertBits(BitSet expected, SparseBitSet actual) {
+        BitSet iterated = new BitSet();
+        PrimitiveIterator.OfInt iterator = actual.iterator();
+        int last = -1;
+        while (iterator.hasNext()) {
+            int bit = iterator.nextInt();
+            // the iterator yields the bits in ascending order
+            assertTrue(bit > last);
+            last = bit;
+            iterated.set(bit);
+        }
+        assertEquals(expected, iterated);
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        BitSet visited = new BitSet();
+        actual.forEach(visited::set);
+        assertEquals(expected, visited);
+    }
+}
@@ -0,0 +1,28 @@
+class TypeFilter {
+
+    public static void main(String[] args) {
+        Object a = id(new A());
+        Object b = id(new B());
+        A x = (A) a;
+        B y = (B) b;
+        loop(new B());
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+
+    static void loop(Object o) {
+        A a = new A();
+        for (int i = 0; i < 10; ++i) {
+            o = a;
+            a = (A) o;
+        }
+    }
+}
+
+class A {
+}
+
+class B {
+}
@@ -60,6 +60,9 @@ public class CallGraphBuilder extends ProgramAnalysis {
                     "Unknown call graph building algorithm: " + algorithm);
         };
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        if (callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            cg.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -28,6 +28,8 @@ import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.snapshot.SnapshotResult;
+import pascal.taie.analysis.pta.snapshot.SnapshotWriter;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
@@ -35,6 +37,7 @@ import pascal.taie.util.Strings;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 
 /**
  * Context-sensitive pointer analysis.
@@ -50,15 +53,40 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
-        solver.solve();
-        PointerAnalysisResult result = solver.getResult();
+        String snapshotAction = options.getString("snapshot-action");
+        Path snapshot = getSnapshotFile(options, snapshotAction);
+        PointerAnalysisResult result;
+        if ("load".equals(snapshotAction)) {
+            // skip the analysis and query the results in the snapshot
+            result = SnapshotResult.load(snapshot);
+        } else {
+            Solver solver = new Solver(options,
+                    new AllocationSiteBasedModel(options),
+                    getContextSelector(options.getString("cs")));
+            solver.solve();
+            result = solver.getResult();
+        }
         ResultProcessor.process(options, result);
+        if ("save".equals(snapshotAction)) {
+            SnapshotWriter.write(result, snapshot);
+        }
         return result;
     }
 
+    private static Path getSnapshotFile(AnalysisOptions options, String action) {
+        if (action == null) {
+            return null;
+        }
+        if (!action.equals("save") && !action.equals("load")) {
+            throw new ConfigException("Unexpected snapshot action: " + action);
+        }
+        String file = options.getString("snapshot");
+        if (file == null) {
+            throw new ConfigException("Snapshot file is not given for action: " + action);
+        }
+        return Path.of(file);
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
@@ -25,11 +25,29 @@ package pascal.taie.analysis.pta.cs;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The pointers in a cycle can be collapsed into one representative
+ * (see {@link #collapse(Collection)}) via union-find. The edges are kept
+ * between representatives, and the pointers given to {@link #addEdge}
+ * and {@link #getSuccsOf} are redirected to their representatives.
  */
 class PointerFlowGraph {
 
@@ -38,6 +56,18 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Parents of the collapsed pointers in the union-find forest.
+     * The pointers that have not been collapsed into others are absent.
+     */
+    private final Map<Pointer, Pointer> parents = Maps.newMap();
+
+    /**
+     * Map from a representative to the pointers collapsed into it.
+     * Only contains the representatives of collapsed pointers.
+     */
+    private final Map<Pointer, Set<Pointer>> members = Maps.newMap();
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -45,13 +75,154 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        Pointer sourceRep = getRep(source);
+        Pointer targetRep = getRep(target);
+        return sourceRep != targetRep && successors.put(sourceRep, targetRep);
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * @return successors of given pointer in the PFG, i.e.,
+     * the successors of its representative.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        Pointer rep = getRep(pointer);
+        Set<Pointer> succs = successors.get(rep);
+        if (succs.stream().anyMatch(s -> getRep(s) != s || s == rep)) {
+            // some successors have been collapsed after the edges were added
+            Set<Pointer> succReps = Sets.newHybridSet();
+            succs.forEach(s -> {
+                Pointer succRep = getRep(s);
+                if (succRep != rep) {
+                    succReps.add(succRep);
+                }
+            });
+            successors.removeAll(rep);
+            successors.putAll(rep, succReps);
+            succs = successors.get(rep);
+        }
+        return succs;
+    }
+
+    /**
+     * @return the representative of the pointers collapsed with given
+     * pointer, or the pointer itself if it has not been collapsed.
+     */
+    Pointer getRep(Pointer pointer) {
+        Pointer rep = pointer;
+        Pointer parent;
+        while ((parent = parents.get(rep)) != null) {
+            rep = parent;
+        }
+        // path compression
+        Pointer p = pointer;
+        while (p != rep) {
+            Pointer next = parents.put(p, rep);
+            p = next;
+        }
+        return rep;
+    }
+
+    /**
+     * @return the pointers collapsed with given pointer, including itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = getRep(pointer);
+        Set<Pointer> result = members.get(rep);
+        return result != null ? Collections.unmodifiableSet(result) : Set.of(rep);
+    }
+
+    /**
+     * Collapses given pointers into one representative, and moves the
+     * edges out of them to the representative. The points-to sets of
+     * the pointers are not merged by this method.
+     *
+     * @return the representative.
+     */
+    Pointer collapse(Collection<Pointer> pointers) {
+        Pointer rep = getRep(pointers.iterator().next());
+        for (Pointer pointer : pointers) {
+            Pointer oldRep = getRep(pointer);
+            if (oldRep != rep) {
+                parents.put(oldRep, rep);
+                successors.putAll(rep, successors.get(oldRep));
+                successors.removeAll(oldRep);
+                Set<Pointer> repMembers = members.computeIfAbsent(rep, r -> {
+                    Set<Pointer> s = Sets.newHybridSet();
+                    s.add(r);
+                    return s;
+                });
+                Set<Pointer> oldMembers = members.remove(oldRep);
+                if (oldMembers != null) {
+                    repMembers.addAll(oldMembers);
+                } else {
+                    repMembers.add(oldRep);
+                }
+            }
+        }
+        return rep;
+    }
+
+    /**
+     * Finds the cycles among the pointers reachable from given pointer.
+     *
+     * @return the representatives of the pointers in each cycle.
+     */
+    List<List<Pointer>> findCycles(Pointer from) {
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Pointer fromRep = getRep(from);
+        graph.addNode(fromRep);
+        stack.push(fromRep);
+        while (!stack.isEmpty()) {
+            Pointer pointer = stack.pop();
+            for (Pointer succ : getSuccsOf(pointer)) {
+                if (!graph.hasNode(succ)) {
+                    graph.addNode(succ);
+                    stack.push(succ);
+                }
+                graph.addEdge(pointer, succ);
+            }
+        }
+        return new SCC<>(graph).getTrueComponents();
+    }
+
+    /**
+     * Computes the ranks of the pointers in this PFG by reverse post-order,
+     * i.e., the ranks are in topological order if the PFG is acyclic.
+     * The collapsed pointers have the rank of their representative.
+     *
+     * @return map from each pointer to its rank.
+     */
+    Map<Pointer, Integer> computeRanks() {
+        List<Pointer> postOrder = new ArrayList<>();
+        Set<Pointer> visited = Sets.newSet();
+        Deque<Pair<Pointer, Iterator<Pointer>>> stack = new ArrayDeque<>();
+        for (Pointer root : List.copyOf(successors.keySet())) {
+            if (getRep(root) == root && visited.add(root)) {
+                stack.push(new Pair<>(root, successors.get(root).iterator()));
+            }
+            while (!stack.isEmpty()) {
+                Pair<Pointer, Iterator<Pointer>> top = stack.peek();
+                if (top.second().hasNext()) {
+                    Pointer succ = getRep(top.second().next());
+                    if (visited.add(succ)) {
+                        stack.push(new Pair<>(succ, successors.get(succ).iterator()));
+                    }
+                } else {
+                    postOrder.add(stack.pop().first());
+                }
+            }
+        }
+        Map<Pointer, Integer> ranks = Maps.newMap(postOrder.size());
+        for (int i = 0; i < postOrder.size(); ++i) {
+            ranks.put(postOrder.get(i), postOrder.size() - 1 - i);
+        }
+        members.forEach((rep, pointers) -> {
+            Integer rank = ranks.get(rep);
+            if (rank != null) {
+                pointers.forEach(p -> ranks.put(p, rank));
+            }
+        });
+        return ranks;
     }
 }
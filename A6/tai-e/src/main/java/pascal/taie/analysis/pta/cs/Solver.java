@@ -39,17 +39,34 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
 import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
-
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class Solver {
 
@@ -61,6 +78,18 @@ class Solver {
 
     private final ContextSelector contextSelector;
 
+    /**
+     * Filter of the objects propagated along PFG edges, or null if
+     * option {@code type-filter} is disabled.
+     */
+    private TypeFilter typeFilter;
+
+    /**
+     * Whether the cycles of PFG are detected and collapsed,
+     * see {@link #collapse(Collection)}.
+     */
+    private boolean cycleDetection;
+
     private CSManager csManager;
 
     private CSCallGraph callGraph;
@@ -71,6 +100,35 @@ class Solver {
 
     private PointerAnalysisResult result;
 
+    /**
+     * Number of objects propagated to the pointers, i.e.,
+     * the sizes of the deltas.
+     */
+    private long propagatedObjects;
+
+    /**
+     * PFG edges that have been checked by lazy cycle detection.
+     */
+    private final Set<Pair<Pointer, Pointer>> checkedEdges = Sets.newSet();
+
+    /**
+     * Cycles of copies found by hybrid cycle detection in each method.
+     */
+    private final Map<JMethod, List<List<Var>>> copyCycles = Maps.newMap();
+
+    /**
+     * Cycles through dereferences found by hybrid cycle detection:
+     * (p, (f, v)) means that o.f (or the array index of o if f is null)
+     * is in a cycle with v for each object o pointed to by p, where
+     * p and v are in the same context.
+     */
+    private final MultiMap<Var, Pair<JField, Var>> derefCycles = Maps.newMultiMap();
+
+    /**
+     * Number of pointers that are collapsed into other pointers.
+     */
+    private long collapsedPointers;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
         this.options = options;
@@ -79,15 +137,42 @@ class Solver {
     }
 
     void solve() {
-        initialize();
-        analyze();
+        try {
+            initialize();
+            analyze();
+            logger.info("Work list ({}): {} entries added, {} entries processed," +
+                            " {} objects propagated", workList.getPolicy(),
+                    workList.getAddedEntries(), workList.getPolledEntries(),
+                    propagatedObjects);
+            if (typeFilter != null) {
+                logger.info("Type filtering: {} objects filtered out",
+                        typeFilter.getFilteredObjects());
+            }
+            logger.info("Cycle detection: {} pointers collapsed", collapsedPointers);
+            String hashConsing = PointsToSetFactory.getHashConsingStatistics();
+            if (hashConsing != null) {
+                logger.info("Hash-consing: {}", hashConsing);
+            }
+        } finally {
+            // the pool of hash-consing is scoped to this run, and the
+            // points-to sets made in this run keep their references to it
+            PointsToSetFactory.setHashConsing(false);
+        }
     }
 
     private void initialize() {
+        PointsToSetFactory.setHashConsing(
+                options.getBooleanOrDefault("hash-cons", false));
         csManager = new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        cycleDetection = options.getBooleanOrDefault("cycle-detection", true);
+        if (options.getBooleanOrDefault("type-filter", false)) {
+            typeFilter = new TypeFilter(World.get().getTypeSystem());
+        }
+        workList = new WorkList(
+                WorkList.Policy.of(options.getString("work-list")),
+                pointerFlowGraph::computeRanks);
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -106,9 +191,92 @@ class Solver {
             csMethod.getMethod().getIR().getStmts().forEach(
                     stmt -> stmt.accept(new StmtProcessor(csMethod))
             );
+            if(cycleDetection) {
+                collapseOfflineCycles(csMethod);
+            }
+        }
+    }
+
+    /**
+     * Collapses the cycles of copies in given method, which are found by
+     * hybrid cycle detection, see {@link #detectOfflineCycles(JMethod)}.
+     */
+    private void collapseOfflineCycles(CSMethod csMethod) {
+        Context context = csMethod.getContext();
+        for(List<Var> cycle : copyCycles.computeIfAbsent(
+                csMethod.getMethod(), this::detectOfflineCycles)) {
+            collapse(cycle.stream()
+                    .<Pointer>map(var -> csManager.getCSVar(context, var))
+                    .toList());
         }
     }
 
+    /**
+     * Hybrid cycle detection (offline part). Finds the cycles formed by
+     * the copies, field accesses and array accesses in the method, where
+     * each dereference p.f (p[*] for arrays) is a node. The variables in
+     * a cycle of copies are collapsed in each context of the method.
+     * For the cycles containing a dereference, o.f and the variables are
+     * collapsed when p is found to point to o (see
+     * {@link #processObjects(CSVar, PointsToSet)}).
+     *
+     * @return the cycles of copies.
+     */
+    private List<List<Var>> detectOfflineCycles(JMethod method) {
+        SimpleGraph<Object> graph = new SimpleGraph<>();
+        for(Stmt stmt : method.getIR().getStmts()) {
+            if(stmt instanceof Copy copy) {
+                addOfflineEdge(graph, copy.getRValue(), copy.getLValue());
+            } else if(stmt instanceof LoadField load && !load.isStatic()) {
+                Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                addOfflineEdge(graph, new Pair<>(base, load.getFieldRef().resolve()),
+                        load.getLValue());
+            } else if(stmt instanceof StoreField store && !store.isStatic()) {
+                Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                addOfflineEdge(graph, store.getRValue(),
+                        new Pair<>(base, store.getFieldRef().resolve()));
+            } else if(stmt instanceof LoadArray load) {
+                addOfflineEdge(graph, new Pair<Var, JField>(
+                        load.getArrayAccess().getBase(), null), load.getLValue());
+            } else if(stmt instanceof StoreArray store) {
+                addOfflineEdge(graph, store.getRValue(), new Pair<Var, JField>(
+                        store.getArrayAccess().getBase(), null));
+            }
+        }
+        List<List<Var>> cycles = new ArrayList<>();
+        for(List<Object> cycle : new SCC<>(graph).getTrueComponents()) {
+            List<Var> vars = new ArrayList<>();
+            List<Pair<Var, JField>> derefs = new ArrayList<>();
+            for(Object node : cycle) {
+                if(node instanceof Var var) {
+                    vars.add(var);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Pair<Var, JField> deref = (Pair<Var, JField>) node;
+                    derefs.add(deref);
+                }
+            }
+            if(derefs.isEmpty()) {
+                cycles.add(vars);
+            } else if(derefs.size() == 1) {
+                // the cycle exists only when the base points to some objects
+                Pair<Var, JField> deref = derefs.get(0);
+                for(Var var : vars) {
+                    derefCycles.put(deref.first(), new Pair<>(deref.second(), var));
+                }
+            }
+            // cycles with multiple dereferences are left to lazy cycle detection
+        }
+        return cycles;
+    }
+
+    private static void addOfflineEdge(SimpleGraph<Object> graph,
+                                       Object source, Object target) {
+        graph.addNode(source);
+        graph.addNode(target);
+        graph.addEdge(source, target);
+    }
+
     /**
      * Processes the statements in context-sensitive new reachable methods.
      */
@@ -143,6 +311,17 @@ class Solver {
             return null;
         }
 
+        public Void visit(Cast stmt) {
+            // casts are only modeled when the objects can be filtered by types
+            if(typeFilter != null && stmt.getLValue().getType() instanceof ReferenceType) {
+                addPFGEdge(
+                        csManager.getCSVar(context, stmt.getRValue().getValue()),
+                        csManager.getCSVar(context, stmt.getLValue())
+                );
+            }
+            return null;
+        }
+
         public Void visit(StoreField stmt) {
             if(stmt.isStatic()) {
                 addPFGEdge(
@@ -181,14 +360,24 @@ class Solver {
      */
     private void addPFGEdge(Pointer source, Pointer target) {
         // TODO - finish me
-        if(!pointerFlowGraph.getSuccsOf(source).contains(target)) {
-            pointerFlowGraph.addEdge(source, target);
+        if(pointerFlowGraph.addEdge(source, target)) {
             if(!source.getPointsToSet().isEmpty()) {
-                workList.addEntry(target, source.getPointsToSet());
+                addEntry(target, source.getPointsToSet());
             }
         }
     }
 
+    /**
+     * Adds an entry for the objects flowing along a PFG edge to target,
+     * which are filtered by the type of target if type filtering is enabled.
+     */
+    private void addEntry(Pointer target, PointsToSet pts) {
+        PointsToSet filtered = typeFilter != null ? typeFilter.filter(pts, target) : pts;
+        if(!filtered.isEmpty()) {
+            workList.addEntry(target, filtered);
+        }
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
@@ -197,38 +386,141 @@ class Solver {
         while(!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
-            if(entry.pointer() instanceof CSVar csVar) {
-                Var var = csVar.getVar();
-                Context context = csVar.getContext();
-                for(CSObj obj : delta) {
-                    var.getStoreFields().forEach(
-                            stmt-> addPFGEdge(
-                                    csManager.getCSVar(context, stmt.getRValue()),
-                                    csManager.getInstanceField(obj, stmt.getFieldRef().resolve())
-                            )
-                    );
-                    var.getLoadFields().forEach(
-                            stmt-> addPFGEdge(
-                                    csManager.getInstanceField(obj, stmt.getFieldRef().resolve()),
-                                    csManager.getCSVar(context, stmt.getLValue())
-                            )
-                    );
-                    var.getStoreArrays().forEach(
-                            stmt-> addPFGEdge(
-                                    csManager.getCSVar(context, stmt.getRValue()),
-                                    csManager.getArrayIndex(obj)
-                            )
-                    );
-                    var.getLoadArrays().forEach(
-                            stmt-> addPFGEdge(
-                                    csManager.getArrayIndex(obj),
-                                    csManager.getCSVar(context, stmt.getLValue())
-                            )
-                    );
-                    processCall(csVar, obj);
+            if(!delta.isEmpty()) {
+                // the pointers collapsed with entry.pointer() share the delta
+                for(Pointer member : List.copyOf(pointerFlowGraph.getMembersOf(entry.pointer()))) {
+                    if(member instanceof CSVar csVar) {
+                        processObjects(csVar, delta);
+                    }
+                }
+                if(cycleDetection) {
+                    detectCycles(entry.pointer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the field accesses, array accesses and instance calls
+     * on csVar for the objects newly pointed to by csVar.
+     */
+    private void processObjects(CSVar csVar, PointsToSet objs) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for(CSObj obj : objs) {
+            var.getStoreFields().forEach(
+                    stmt-> addPFGEdge(
+                            csManager.getCSVar(context, stmt.getRValue()),
+                            csManager.getInstanceField(obj, stmt.getFieldRef().resolve())
+                    )
+            );
+            var.getLoadFields().forEach(
+                    stmt-> addPFGEdge(
+                            csManager.getInstanceField(obj, stmt.getFieldRef().resolve()),
+                            csManager.getCSVar(context, stmt.getLValue())
+                    )
+            );
+            var.getStoreArrays().forEach(
+                    stmt-> addPFGEdge(
+                            csManager.getCSVar(context, stmt.getRValue()),
+                            csManager.getArrayIndex(obj)
+                    )
+            );
+            var.getLoadArrays().forEach(
+                    stmt-> addPFGEdge(
+                            csManager.getArrayIndex(obj),
+                            csManager.getCSVar(context, stmt.getLValue())
+                    )
+            );
+            processCall(csVar, obj);
+        }
+        // hybrid cycle detection (online part)
+        for(Pair<JField, Var> cycle : derefCycles.get(var)) {
+            Pointer target = csManager.getCSVar(context, cycle.second());
+            for(CSObj obj : objs) {
+                Pointer deref = cycle.first() != null ?
+                        csManager.getInstanceField(obj, cycle.first()) :
+                        csManager.getArrayIndex(obj);
+                collapse(List.of(deref, target));
+            }
+        }
+    }
+
+    /**
+     * Lazy cycle detection. An edge whose source and target have
+     * the same points-to set is likely in a cycle, thus the cycles
+     * reachable from the target are searched and collapsed.
+     * Each edge is checked at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        Pointer rep = pointerFlowGraph.getRep(pointer);
+        PointsToSet pts = rep.getPointsToSet();
+        for(Pointer succ : pointerFlowGraph.getSuccsOf(rep)) {
+            PointsToSet succPts = succ.getPointsToSet();
+            if(succPts.size() == pts.size() &&
+                    pts.objects().allMatch(succPts::contains) &&
+                    checkedEdges.add(new Pair<>(rep, succ))) {
+                pointerFlowGraph.findCycles(succ).forEach(this::collapse);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collapses given pointers into one representative, and processes
+     * the objects that are new to each of the collapsed pointers.
+     * All collapsed pointers share the points-to set of the representative,
+     * thus the results of them are the same as without collapsing.
+     *
+     * @return true if the pointers are collapsed, otherwise false.
+     */
+    private boolean collapse(Collection<Pointer> pointers) {
+        // points-to sets and members of the representatives before collapsing
+        Map<Pointer, Pair<PointsToSet, List<Pointer>>> groups = Maps.newMap();
+        for(Pointer pointer : pointers) {
+            Pointer rep = pointerFlowGraph.getRep(pointer);
+            if(!groups.containsKey(rep)) {
+                PointsToSet copy = PointsToSetFactory.make();
+                copy.addAll(rep.getPointsToSet());
+                groups.put(rep, new Pair<>(copy,
+                        List.copyOf(pointerFlowGraph.getMembersOf(rep))));
+            }
+        }
+        if(groups.size() < 2) {
+            return false;
+        }
+        if(typeFilter != null && groups.keySet().stream()
+                .map(Pointer::getType).distinct().count() > 1) {
+            // pointers of different types may have different points-to sets
+            // after filtering, thus they are not collapsed
+            return false;
+        }
+        collapsedPointers += groups.size() - 1;
+        Pointer rep = pointerFlowGraph.collapse(groups.keySet());
+        PointsToSet pts = rep.getPointsToSet();
+        groups.values().forEach(group -> {
+            pts.addAll(group.first());
+            group.second().forEach(member -> member.setPointsToSet(pts));
+        });
+        groups.values().forEach(group -> {
+            PointsToSet diff = PointsToSetFactory.make();
+            pts.forEach(obj -> {
+                if(!group.first().contains(obj)) {
+                    diff.addObject(obj);
+                }
+            });
+            if(!diff.isEmpty()) {
+                for(Pointer member : group.second()) {
+                    if(member instanceof CSVar csVar) {
+                        processObjects(csVar, diff);
+                    }
                 }
             }
+        });
+        if(!pts.isEmpty()) {
+            pointerFlowGraph.getSuccsOf(rep).forEach(succ -> addEntry(succ, pts));
         }
+        return true;
     }
 
     /**
@@ -243,9 +535,10 @@ class Solver {
                 delta.addObject(obj);
             }
         });
+        propagatedObjects += delta.size();
         if(!delta.isEmpty()) {
-            delta.forEach(obj-> pt.getPointsToSet().addObject(obj));
-            pointerFlowGraph.getSuccsOf(pt).forEach(succ-> workList.addEntry(succ, delta));
+            pt.getPointsToSet().addAll(delta);
+            pointerFlowGraph.getSuccsOf(pt).forEach(succ-> addEntry(succ, delta));
         }
         return delta;
     }
@@ -329,6 +622,7 @@ class Solver {
 
     PointerAnalysisResult getResult() {
         if (result == null) {
+            callGraph.freeze();
             result = new PointerAnalysisResultImpl(csManager, callGraph);
         }
         return result;
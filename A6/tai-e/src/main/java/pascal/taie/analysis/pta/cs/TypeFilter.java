@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+/**
+ * Filters the objects propagated to pointers by the declared types of
+ * the pointers, i.e., a pointer only receives the objects whose types
+ * are subtypes of its type.
+ * <p>
+ * The results of subtype checks are cached for each pair of types.
+ */
+class TypeFilter {
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Cache of subtype checks: (object type, pointer type) -> result.
+     */
+    private final TwoKeyMap<Type, Type, Boolean> subtypes = Maps.newTwoKeyMap();
+
+    /**
+     * Number of objects that are filtered out.
+     */
+    private long filteredObjects;
+
+    TypeFilter(TypeSystem typeSystem) {
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the objects in {@code pts} that can be pointed to by pointer.
+     */
+    PointsToSet filter(PointsToSet pts, Pointer pointer) {
+        Type type = pointer.getType();
+        if (pts.objects().allMatch(obj -> isSubtype(obj, type))) {
+            return pts;
+        }
+        PointsToSet result = PointsToSetFactory.make();
+        pts.forEach(obj -> {
+            if (isSubtype(obj, type)) {
+                result.addObject(obj);
+            }
+        });
+        filteredObjects += pts.size() - result.size();
+        return result;
+    }
+
+    private boolean isSubtype(CSObj obj, Type type) {
+        return subtypes.computeIfAbsent(obj.getObject().getType(), type,
+                (subtype, supertype) -> typeSystem.isSubtype(supertype, subtype));
+    }
+
+    long getFilteredObjects() {
+        return filteredObjects;
+    }
+}
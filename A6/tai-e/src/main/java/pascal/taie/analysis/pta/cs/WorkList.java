@@ -22,24 +22,162 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.function.Supplier;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The order in which the entries are processed is decided by {@link Policy}.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Policies of choosing the next entry to process.
+     */
+    enum Policy {
+        /**
+         * First in, first out.
+         */
+        FIFO,
+        /**
+         * Last in, first out.
+         */
+        LIFO,
+        /**
+         * Least recently fired: the entries of the pointer that
+         * has not been processed for the longest time go first.
+         */
+        LRF,
+        /**
+         * Topological order: the entries of the pointers with lower
+         * ranks in the PFG go first.
+         */
+        TOPO,
+        /**
+         * Two-phase: the entries of the pointers that only propagate
+         * along copy edges go first, and the entries of the variables
+         * involved in field accesses, array accesses or calls (which
+         * add new edges) go when there are no other entries.
+         */
+        TWO_PHASE;
+
+        /**
+         * @return the policy of given name, e.g., {@code two-phase},
+         * or {@link #FIFO} if the name is null.
+         */
+        static Policy of(String name) {
+            if (name == null) {
+                return FIFO;
+            }
+            try {
+                return valueOf(name.toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new ConfigException("Unexpected work-list policy: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * The ranks are computed on first use (and whenever they are empty,
+     * e.g., before the PFG has any edges), and recomputed when the number
+     * of added entries reaches this threshold, which is doubled each time.
+     */
+    private static final int INITIAL_RANKING_THRESHOLD = 1 << 10;
+
+    private final Policy policy;
+
+    private final Queue<Item> items;
+
+    /**
+     * Computes the ranks of the pointers for {@link Policy#TOPO}.
+     */
+    private final Supplier<Map<Pointer, Integer>> ranker;
+
+    private Map<Pointer, Integer> ranks = Map.of();
+
+    private long rankingThreshold = INITIAL_RANKING_THRESHOLD;
+
+    /**
+     * Map from a pointer to the time when it was processed last,
+     * for {@link Policy#LRF}.
+     */
+    private final Map<Pointer, Long> lastFired = Maps.newMap();
+
+    /**
+     * Number of added entries.
+     */
+    private long addedEntries = 0;
+
+    /**
+     * Number of processed entries.
+     */
+    private long polledEntries = 0;
+
+    WorkList(Policy policy, Supplier<Map<Pointer, Integer>> ranker) {
+        this.policy = policy;
+        this.ranker = ranker;
+        this.items = switch (policy) {
+            case FIFO -> new ArrayDeque<>();
+            case LIFO -> Collections.asLifoQueue(new ArrayDeque<>());
+            default -> new PriorityQueue<>(Comparator
+                    .comparingLong(Item::key)
+                    .thenComparingLong(Item::seq));
+        };
+    }
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        items.add(new Item(getKey(pointer), addedEntries++,
+                new Entry(pointer, pointsToSet)));
+    }
+
+    /**
+     * @return the priority key of the entries of given pointer,
+     * smaller keys go first.
+     */
+    private long getKey(Pointer pointer) {
+        return switch (policy) {
+            case FIFO, LIFO -> 0;
+            case LRF -> lastFired.getOrDefault(pointer, 0L);
+            case TOPO -> {
+                boolean stale = addedEntries >= rankingThreshold;
+                if (stale || ranks.isEmpty()) {
+                    ranks = ranker.get();
+                    if (stale) {
+                        rankingThreshold *= 2;
+                    }
+                }
+                yield ranks.getOrDefault(pointer, Integer.MAX_VALUE);
+            }
+            case TWO_PHASE -> hasComplexConstraints(pointer) ? 1 : 0;
+        };
+    }
+
+    private static boolean hasComplexConstraints(Pointer pointer) {
+        if (pointer instanceof CSVar csVar) {
+            Var var = csVar.getVar();
+            return !var.getLoadFields().isEmpty() ||
+                    !var.getStoreFields().isEmpty() ||
+                    !var.getLoadArrays().isEmpty() ||
+                    !var.getStoreArrays().isEmpty() ||
+                    !var.getInvokes().isEmpty();
+        }
+        return false;
     }
 
     /**
@@ -47,14 +185,41 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Item item = items.poll();
+        if (item == null) {
+            return null;
+        }
+        ++polledEntries;
+        if (policy == Policy.LRF) {
+            lastFired.put(item.entry().pointer(), polledEntries);
+        }
+        return item.entry();
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return items.isEmpty();
+    }
+
+    Policy getPolicy() {
+        return policy;
+    }
+
+    long getAddedEntries() {
+        return addedEntries;
+    }
+
+    long getPolledEntries() {
+        return polledEntries;
+    }
+
+    /**
+     * Entry with its priority key and sequence number (for keeping
+     * the insertion order of the entries with the same key).
+     */
+    private record Item(long key, long seq, Entry entry) {
     }
 
     /**
@@ -35,8 +35,34 @@ public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
+    /**
+     * Pool of hash-consed sets of the running analysis, or null if
+     * hash-consing is disabled.
+     */
+    private static PointsToSetPool pool;
+
+    /**
+     * Enables or disables hash-consing of the points-to sets made
+     * afterwards. When enabled, equal points-to sets share their objects
+     * via a fresh pool, see {@link SharedPointsToSet}. The analysis that
+     * enables hash-consing should disable it when it finishes, so that
+     * the pool is released and not used by later analyses.
+     */
+    public static void setHashConsing(boolean hashConsing) {
+        pool = hashConsing ? new PointsToSetPool() : null;
+    }
+
+    /**
+     * @return statistics of hash-consing, or null if it is disabled.
+     */
+    public static String getHashConsingStatistics() {
+        return pool != null ? pool.toString() : null;
+    }
+
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return pool != null ?
+                new SharedPointsToSet(pool) :
+                new DelegatePointsToSet(setFactory.get());
     }
 
     /**
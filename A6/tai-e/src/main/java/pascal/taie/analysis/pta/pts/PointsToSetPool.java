@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pool of hash-consed (canonical) sets of objects.
+ * <p>
+ * Equal sets are represented by the same canonical instance, which must
+ * not be modified. The unions of pairs of canonical sets are memoised.
+ * Both the pool and the memo are bounded LRU caches, thus a set evicted
+ * from the pool may still be alive (held by points-to sets) but not
+ * shared by sets created later, which loses sharing but not precision.
+ */
+class PointsToSetPool {
+
+    private static final int POOL_SIZE = 1 << 16;
+
+    private static final int UNION_CACHE_SIZE = 1 << 14;
+
+    private final Set<CSObj> emptySet = Sets.newHybridSet();
+
+    private final Map<Set<CSObj>, Set<CSObj>> sets = newCache(POOL_SIZE);
+
+    private final Map<SetPair, Set<CSObj>> unions = newCache(UNION_CACHE_SIZE);
+
+    /**
+     * Number of sets that are interned.
+     */
+    private long interned;
+
+    /**
+     * Number of interned sets that are found in the pool.
+     */
+    private long shared;
+
+    /**
+     * Number of unions that are found in the memo.
+     */
+    private long memoisedUnions;
+
+    /**
+     * Pair of canonical sets, compared by identity.
+     */
+    private record SetPair(Set<CSObj> first, Set<CSObj> second) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SetPair pair &&
+                    first == pair.first && second == pair.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(first) +
+                    System.identityHashCode(second);
+        }
+    }
+
+    private static <K, V> Map<K, V> newCache(int size) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * @return the canonical empty set.
+     */
+    Set<CSObj> getEmptySet() {
+        return emptySet;
+    }
+
+    /**
+     * Returns the canonical set equal to given set. If there is none,
+     * {@code set} itself becomes canonical, so the caller must not
+     * modify it afterwards.
+     */
+    Set<CSObj> intern(Set<CSObj> set) {
+        if (set.isEmpty()) {
+            return emptySet;
+        }
+        ++interned;
+        Set<CSObj> canonical = sets.putIfAbsent(set, set);
+        if (canonical != null) {
+            ++shared;
+            return canonical;
+        }
+        return set;
+    }
+
+    /**
+     * @return the canonical union of two canonical sets.
+     */
+    Set<CSObj> union(Set<CSObj> s1, Set<CSObj> s2) {
+        if (s1 == s2 || s2.isEmpty()) {
+            return s1;
+        }
+        if (s1.isEmpty()) {
+            return s2;
+        }
+        SetPair key = new SetPair(s1, s2);
+        Set<CSObj> result = unions.get(key);
+        if (result != null) {
+            ++memoisedUnions;
+            return result;
+        }
+        if (s1.containsAll(s2)) {
+            result = s1;
+        } else if (s2.size() > s1.size() && s2.containsAll(s1)) {
+            result = s2;
+        } else {
+            Set<CSObj> union = Sets.newHybridSet(s1);
+            union.addAll(s2);
+            result = intern(union);
+        }
+        unions.put(key, result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sets interned (%d shared), %d unions memoised",
+                interned, shared, memoisedUnions);
+    }
+}
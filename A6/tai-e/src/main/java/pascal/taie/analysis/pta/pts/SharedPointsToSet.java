@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set whose objects are held in a set shared with other equal
+ * points-to sets via {@link PointsToSetPool}.
+ * <p>
+ * The set is copied on write: a shared (canonical) set is copied before
+ * adding an object to it, and the result of {@link #addAll(PointsToSet)}
+ * is the canonical (and possibly memoised) union of the two sets. A set
+ * built by {@link #addObject(CSObj)} stays private until it is interned
+ * by {@link #addAll(PointsToSet)}, thus building a set object by object
+ * does not intern every intermediate set.
+ */
+class SharedPointsToSet implements PointsToSet {
+
+    private final PointsToSetPool pool;
+
+    private Set<CSObj> set;
+
+    /**
+     * Whether {@link #set} is canonical, i.e., shared and immutable.
+     */
+    private boolean canonical;
+
+    SharedPointsToSet(PointsToSetPool pool) {
+        this.pool = pool;
+        this.set = pool.getEmptySet();
+        this.canonical = true;
+    }
+
+    /**
+     * Interns the objects of this set, and returns the canonical set.
+     */
+    private Set<CSObj> intern() {
+        if (!canonical) {
+            set = pool.intern(set);
+            canonical = true;
+        }
+        return set;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (set.contains(obj)) {
+            return false;
+        }
+        if (canonical) {
+            set = Sets.newHybridSet(set);
+            canonical = false;
+        }
+        return set.add(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        Set<CSObj> other = pts instanceof SharedPointsToSet shared ?
+                shared.intern() : pool.intern(Sets.newHybridSet(pts.getObjects()));
+        Set<CSObj> old = intern();
+        set = pool.union(old, other);
+        // the union is a superset of old set, so comparing sizes suffices
+        return set.size() != old.size();
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return set.stream();
+    }
+
+    @Override
+    public String toString() {
+        return set.toString();
+    }
+}
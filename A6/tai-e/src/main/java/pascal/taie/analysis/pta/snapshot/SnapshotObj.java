@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.Optional;
+
+/**
+ * Object restored from a snapshot. Its attributes are read from
+ * the mapped file on demand.
+ */
+class SnapshotObj implements Obj {
+
+    private final SnapshotResult snapshot;
+
+    private final int id;
+
+    SnapshotObj(SnapshotResult snapshot, int id) {
+        this.snapshot = snapshot;
+        this.id = id;
+    }
+
+    SnapshotResult getSnapshot() {
+        return snapshot;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    @Override
+    public Type getType() {
+        return getType(snapshot.getObjField(id, 0));
+    }
+
+    /**
+     * @return the allocation statement of this object if it has one,
+     * otherwise, the description of the allocation.
+     */
+    @Override
+    public Object getAllocation() {
+        int stmtIndex = snapshot.getObjField(id, 4);
+        Optional<JMethod> container = getContainerMethod();
+        if (stmtIndex >= 0 && container.isPresent()) {
+            return container.get().getIR().getStmt(stmtIndex);
+        }
+        return toString();
+    }
+
+    @Override
+    public Optional<JMethod> getContainerMethod() {
+        int methodId = snapshot.getObjField(id, 2);
+        return methodId < 0 ? Optional.empty() :
+                Optional.of(snapshot.getMethod(methodId));
+    }
+
+    @Override
+    public Type getContainerType() {
+        return getType(snapshot.getObjField(id, 3));
+    }
+
+    private Type getType(int nameId) {
+        return nameId < 0 ? null :
+                World.get().getTypeSystem().getType(snapshot.getString(nameId));
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.getString(snapshot.getObjField(id, 1));
+    }
+}
@@ -0,0 +1,683 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Pointer analysis result backed by a memory-mapped snapshot
+ * written by {@link SnapshotWriter}.
+ * <p>
+ * Only the positions of sections are read eagerly. Points-to sets
+ * of variables are views on the mapped file, and objects, variables
+ * and the call graph are restored on demand, so that loading a snapshot
+ * of a large program costs little time and heap. The context-sensitive
+ * elements, i.e., contexts, pointers, objects and call graph, are
+ * restored all together on the first context-sensitive query.
+ */
+public class SnapshotResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Positions of sections in {@link #buffer}.
+     */
+    private final int strings;
+
+    private final int methods;
+
+    private final int fields;
+
+    private final int vars;
+
+    private final int varSets;
+
+    private final int objs;
+
+    private final int contexts;
+
+    private final int csObjs;
+
+    private final int csVars;
+
+    private final int csVarSets;
+
+    private final int staticFields;
+
+    private final int staticSets;
+
+    private final int instanceFields;
+
+    private final int instanceSets;
+
+    private final int arrayIndexes;
+
+    private final int arraySets;
+
+    private final int callGraphPos;
+
+    private final int csMethods;
+
+    /**
+     * Restored objects, indexed by ids.
+     */
+    private final SnapshotObj[] objCache;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Manager of the restored context-sensitive elements, or null if
+     * they have not been restored.
+     */
+    private CSManager csManager;
+
+    private CSCallGraph csCallGraph;
+
+    private SnapshotResult(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != SnapshotWriter.MAGIC) {
+            throw new AnalysisException("Not a pointer analysis snapshot");
+        }
+        if (buffer.getInt(4) != SnapshotWriter.VERSION) {
+            throw new AnalysisException("Unsupported snapshot version: "
+                    + buffer.getInt(4));
+        }
+        strings = 8;
+        int nStrings = count(strings);
+        methods = ints(strings) + (nStrings + 1) * 4
+                + getInt(ints(strings), nStrings);
+        fields = ints(methods) + (2 * count(methods) + 1) * 4;
+        vars = ints(fields) + count(fields) * 4;
+        varSets = ints(vars) + count(vars) * 4;
+        objs = skipSets(varSets, count(vars));
+        contexts = ints(objs) + count(objs) * SnapshotWriter.OBJ_RECORD * 4;
+        csObjs = skipSets(ints(contexts), count(contexts));
+        csVars = ints(csObjs) + count(csObjs) * 2 * 4;
+        csVarSets = ints(csVars) + count(csVars) * 2 * 4;
+        staticFields = skipSets(csVarSets, count(csVars));
+        staticSets = ints(staticFields) + count(staticFields) * 4;
+        instanceFields = skipSets(staticSets, count(staticFields));
+        instanceSets = ints(instanceFields) + count(instanceFields) * 2 * 4;
+        arrayIndexes = skipSets(instanceSets, count(instanceFields));
+        arraySets = ints(arrayIndexes) + count(arrayIndexes) * 4;
+        callGraphPos = skipSets(arraySets, count(arrayIndexes));
+        int reachable = ints(callGraphPos) + count(callGraphPos) * 4;
+        int edges = ints(reachable) + count(reachable) * 4;
+        csMethods = ints(edges) + count(edges) * 4 * 4;
+        objCache = new SnapshotObj[count(objs)];
+    }
+
+    /**
+     * Maps the snapshot {@code file} into memory. The snapshot must be
+     * taken from the same program, as the elements are restored
+     * from the current {@link World}.
+     */
+    public static SnapshotResult load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new SnapshotResult(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load snapshot from " + file, e);
+        }
+    }
+
+    // ---------- low-level accessors ----------
+
+    private int count(int section) {
+        return buffer.getInt(section);
+    }
+
+    /**
+     * @return the position of the ints following the count of a section.
+     */
+    private static int ints(int section) {
+        return section + 4;
+    }
+
+    private int getInt(int pos, int i) {
+        return buffer.getInt(pos + i * 4);
+    }
+
+    /**
+     * @return the position following {@code n} points-to sets at {@code pos}.
+     */
+    private int skipSets(int pos, int n) {
+        return pos + (n + 1 + getInt(pos, n)) * 4;
+    }
+
+    String getString(int id) {
+        int offsets = ints(strings);
+        int start = getInt(offsets, id);
+        int end = getInt(offsets, id + 1);
+        byte[] bytes = new byte[end - start];
+        buffer.get(offsets + (count(strings) + 1) * 4 + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the {@code i}-th of {@code n} points-to sets at {@code sets}.
+     */
+    private Set<Obj> getObjSet(int sets, int n, int i) {
+        return new ObjSet(sets + (n + 1) * 4,
+                getInt(sets, i), getInt(sets, i + 1));
+    }
+
+    /**
+     * Performs {@code action} on the ids in the {@code i}-th of
+     * {@code n} sets at {@code sets}.
+     */
+    private void forEachId(int sets, int n, int i, IntConsumer action) {
+        int data = sets + (n + 1) * 4;
+        for (int j = getInt(sets, i); j < getInt(sets, i + 1); ++j) {
+            action.accept(getInt(data, j));
+        }
+    }
+
+    /**
+     * @return the objects of the context-sensitive objects in the
+     * {@code i}-th of {@code n} points-to sets at {@code sets}.
+     */
+    private Set<Obj> getCIObjSet(int sets, int n, int i) {
+        Set<Obj> result = Sets.newHybridSet();
+        forEachId(sets, n, i, csObjId -> result.add(getObj(getCSObjField(csObjId, 0))));
+        return Collections.unmodifiableSet(result);
+    }
+
+    // ---------- elements ----------
+
+    JMethod getMethod(int id) {
+        return World.get().getClassHierarchy()
+                .getMethod(getString(getInt(ints(methods), id)));
+    }
+
+    /**
+     * @return the id of {@code method}, or -1 if it is absent.
+     */
+    private int getMethodId(JMethod method) {
+        return methodIds.computeIfAbsent(method, m -> binarySearch(
+                ints(methods), count(methods), m.getSignature()));
+    }
+
+    private JField getField(int id) {
+        return World.get().getClassHierarchy()
+                .getField(getString(getInt(ints(fields), id)));
+    }
+
+    private int getFieldId(JField field) {
+        return binarySearch(ints(fields), count(fields), field.getSignature());
+    }
+
+    private int binarySearch(int sigs, int n, String signature) {
+        int low = 0, high = n - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(getInt(sigs, mid)).compareTo(signature);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int varStarts() {
+        return ints(methods) + count(methods) * 4;
+    }
+
+    private int getVarId(Var var) {
+        int methodId = getMethodId(var.getMethod());
+        if (methodId < 0) {
+            return -1;
+        }
+        int low = getInt(varStarts(), methodId);
+        int high = getInt(varStarts(), methodId + 1) - 1;
+        return binarySearchInts(ints(vars), 1, low, high, var.getIndex());
+    }
+
+    private Var getVar(int id) {
+        // finds the last method whose variables start at or before id
+        int low = 0, high = count(methods) - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (getInt(varStarts(), mid) <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return getMethod(low).getIR().getVar(getInt(ints(vars), id));
+    }
+
+    Obj getObj(int id) {
+        SnapshotObj obj = objCache[id];
+        if (obj == null) {
+            obj = new SnapshotObj(this, id);
+            objCache[id] = obj;
+        }
+        return obj;
+    }
+
+    /**
+     * @return the {@code field}-th int of the record of object {@code id}.
+     */
+    int getObjField(int id, int field) {
+        return getInt(ints(objs), id * SnapshotWriter.OBJ_RECORD + field);
+    }
+
+    /**
+     * @return the {@code field}-th int, i.e., object (0) or context (1),
+     * of the record of context-sensitive object {@code id}.
+     */
+    private int getCSObjField(int id, int field) {
+        return getInt(ints(csObjs), id * 2 + field);
+    }
+
+    private Context getContext(int id) {
+        int sets = ints(contexts);
+        int data = sets + (count(contexts) + 1) * 4;
+        int start = getInt(sets, id);
+        int length = (getInt(sets, id + 1) - start) /
+                SnapshotWriter.CONTEXT_ELEMENT_RECORD;
+        Object[] elems = new Object[length];
+        for (int i = 0; i < length; ++i) {
+            int base = start + i * SnapshotWriter.CONTEXT_ELEMENT_RECORD;
+            int value = getInt(data, base + 1);
+            elems[i] = switch (getInt(data, base)) {
+                case SnapshotWriter.CONTEXT_OBJ -> getObj(value);
+                case SnapshotWriter.CONTEXT_INVOKE -> getMethod(value)
+                        .getIR().getStmt(getInt(data, base + 2));
+                case SnapshotWriter.CONTEXT_TYPE -> World.get()
+                        .getTypeSystem().getType(getString(value));
+                default -> throw new AnalysisException(
+                        "Unexpected kind of context element: " + getInt(data, base));
+            };
+        }
+        return ListContext.make(elems);
+    }
+
+    /**
+     * Searches {@code key} in the first int of the records of
+     * {@code recordSize} ints, whose indexes are in [low, high].
+     *
+     * @return the index of the lowest matching record, or -1 if absent.
+     */
+    private int binarySearchInts(int pos, int recordSize,
+                                 int low, int high, int key) {
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = getInt(pos, mid * recordSize);
+            if (value < key) {
+                low = mid + 1;
+            } else {
+                if (value == key) {
+                    found = mid;
+                }
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // ---------- context-insensitive queries ----------
+
+    @Override
+    public Collection<Var> getVars() {
+        return new AbstractList<>() {
+            @Override
+            public Var get(int index) {
+                return getVar(index);
+            }
+
+            @Override
+            public int size() {
+                return count(vars);
+            }
+        };
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return new AbstractList<>() {
+            @Override
+            public Obj get(int index) {
+                return getObj(index);
+            }
+
+            @Override
+            public int size() {
+                return objCache.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        int id = getVarId(var);
+        return id < 0 ? Set.of() : getObjSet(varSets, count(vars), id);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        int fieldId = getFieldId(field);
+        if (fieldId < 0) {
+            return Set.of();
+        }
+        Set<Obj> result = Sets.newHybridSet();
+        int nCSObjs = count(csObjs);
+        int n = count(instanceFields);
+        for (Obj obj : getPointsToSet(base)) {
+            // the context-sensitive objects are sorted by objects
+            int objId = ((SnapshotObj) obj).getId();
+            int csObjId = binarySearchInts(ints(csObjs), 2, 0, nCSObjs - 1, objId);
+            for (; csObjId >= 0 && csObjId < nCSObjs &&
+                    getCSObjField(csObjId, 0) == objId; ++csObjId) {
+                int i = binarySearchInts(ints(instanceFields), 2, 0, n - 1, csObjId);
+                for (; i >= 0 && i < n &&
+                        getInt(ints(instanceFields), i * 2) == csObjId; ++i) {
+                    if (getInt(ints(instanceFields), i * 2 + 1) == fieldId) {
+                        result.addAll(getCIObjSet(instanceSets, n, i));
+                        break;
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        int fieldId = getFieldId(field);
+        int i = fieldId < 0 ? -1 : binarySearchInts(ints(staticFields), 1,
+                0, count(staticFields) - 1, fieldId);
+        return i < 0 ? Set.of() : getCIObjSet(staticSets, count(staticFields), i);
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            callGraph = restoreCallGraph();
+        }
+        return callGraph;
+    }
+
+    private CallGraph<Invoke, JMethod> restoreCallGraph() {
+        DefaultCallGraph cg = new DefaultCallGraph();
+        int pos = callGraphPos;
+        for (int i = 0; i < count(pos); ++i) {
+            cg.addEntryMethod(getMethod(getInt(ints(pos), i)));
+        }
+        pos = ints(pos) + count(pos) * 4;
+        for (int i = 0; i < count(pos); ++i) {
+            cg.addReachableMethod(getMethod(getInt(ints(pos), i)));
+        }
+        pos = ints(pos) + count(pos) * 4;
+        CallKind[] kinds = CallKind.values();
+        for (int i = 0; i < count(pos); ++i) {
+            int base = i * 4;
+            JMethod caller = getMethod(getInt(ints(pos), base));
+            Invoke callSite = (Invoke) caller.getIR()
+                    .getStmt(getInt(ints(pos), base + 1));
+            JMethod callee = getMethod(getInt(ints(pos), base + 2));
+            cg.addEdge(new Edge<>(kinds[getInt(ints(pos), base + 3)],
+                    callSite, callee));
+        }
+        return cg;
+    }
+
+    // ---------- context-sensitive queries ----------
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return getCSManager().getCSVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return getCSManager().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return getCSManager().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return getCSManager().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return getCSManager().getObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        return getCSManager().getCSVarsOf(var.getVar())
+                .stream()
+                .filter(v -> v.getContext().equals(var.getContext()))
+                .findFirst()
+                .map(v -> v.getPointsToSet().getObjects())
+                .orElse(Set.of());
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        getCSManager();
+        return csCallGraph;
+    }
+
+    private CSManager getCSManager() {
+        if (csManager == null) {
+            restoreCSElements();
+        }
+        return csManager;
+    }
+
+    /**
+     * Restores the context-sensitive elements and their points-to sets.
+     */
+    private void restoreCSElements() {
+        CSManager manager = new MapBasedCSManager();
+        Context[] contextCache = new Context[count(contexts)];
+        for (int i = 0; i < contextCache.length; ++i) {
+            contextCache[i] = getContext(i);
+        }
+        CSObj[] csObjCache = new CSObj[count(csObjs)];
+        for (int i = 0; i < csObjCache.length; ++i) {
+            csObjCache[i] = manager.getCSObj(contextCache[getCSObjField(i, 1)],
+                    getObj(getCSObjField(i, 0)));
+        }
+        int n = count(csVars);
+        for (int i = 0; i < n; ++i) {
+            CSVar csVar = manager.getCSVar(
+                    contextCache[getInt(ints(csVars), i * 2 + 1)],
+                    getVar(getInt(ints(csVars), i * 2)));
+            addCSObjs(csVar, csVarSets, n, i, csObjCache);
+        }
+        n = count(staticFields);
+        for (int i = 0; i < n; ++i) {
+            StaticField field = manager.getStaticField(
+                    getField(getInt(ints(staticFields), i)));
+            addCSObjs(field, staticSets, n, i, csObjCache);
+        }
+        n = count(instanceFields);
+        for (int i = 0; i < n; ++i) {
+            InstanceField field = manager.getInstanceField(
+                    csObjCache[getInt(ints(instanceFields), i * 2)],
+                    getField(getInt(ints(instanceFields), i * 2 + 1)));
+            addCSObjs(field, instanceSets, n, i, csObjCache);
+        }
+        n = count(arrayIndexes);
+        for (int i = 0; i < n; ++i) {
+            ArrayIndex array = manager.getArrayIndex(
+                    csObjCache[getInt(ints(arrayIndexes), i)]);
+            addCSObjs(array, arraySets, n, i, csObjCache);
+        }
+        csCallGraph = restoreCSCallGraph(manager, contextCache);
+        csManager = manager;
+    }
+
+    private void addCSObjs(Pointer pointer, int sets, int n, int i,
+                           CSObj[] csObjCache) {
+        PointsToSet pts = pointer.getPointsToSet();
+        forEachId(sets, n, i, id -> pts.addObject(csObjCache[id]));
+    }
+
+    private CSCallGraph restoreCSCallGraph(CSManager manager, Context[] contextCache) {
+        CSCallGraph cg = new CSCallGraph(manager);
+        int pos = csMethods;
+        CSMethod[] methodCache = new CSMethod[count(pos)];
+        for (int i = 0; i < methodCache.length; ++i) {
+            methodCache[i] = manager.getCSMethod(
+                    contextCache[getInt(ints(pos), i * 2 + 1)],
+                    getMethod(getInt(ints(pos), i * 2)));
+            cg.addReachableMethod(methodCache[i]);
+        }
+        pos = ints(pos) + count(pos) * 2 * 4;
+        for (int i = 0; i < count(pos); ++i) {
+            cg.addEntryMethod(methodCache[getInt(ints(pos), i)]);
+        }
+        pos = ints(pos) + count(pos) * 4;
+        CallKind[] kinds = CallKind.values();
+        for (int i = 0; i < count(pos); ++i) {
+            int base = i * 4;
+            CSMethod caller = methodCache[getInt(ints(pos), base)];
+            Invoke callSite = (Invoke) caller.getMethod().getIR()
+                    .getStmt(getInt(ints(pos), base + 1));
+            CSCallSite csCallSite = manager.getCSCallSite(
+                    caller.getContext(), callSite);
+            CSMethod callee = methodCache[getInt(ints(pos), base + 2)];
+            cg.addEdge(new Edge<>(kinds[getInt(ints(pos), base + 3)],
+                    csCallSite, callee));
+        }
+        cg.freeze();
+        return cg;
+    }
+
+    /**
+     * Read-only view of a points-to set stored in the snapshot.
+     */
+    private class ObjSet extends AbstractSet<Obj> {
+
+        /**
+         * Position of the ids of the objects, and range of this set.
+         */
+        private final int data, start, end;
+
+        private ObjSet(int data, int start, int end) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int getId(int i) {
+            return getInt(data, i);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof SnapshotObj obj) || obj.getSnapshot() != SnapshotResult.this) {
+                return false;
+            }
+            return binarySearchInts(data, 1, start, end - 1, obj.getId()) >= 0;
+        }
+
+        @Override
+        public Iterator<Obj> iterator() {
+            return new Iterator<>() {
+
+                private int i = start;
+
+                @Override
+                public boolean hasNext() {
+                    return i < end;
+                }
+
+                @Override
+                public Obj next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return getObj(getId(i++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
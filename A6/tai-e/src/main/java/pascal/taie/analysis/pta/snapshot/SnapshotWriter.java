@@ -0,0 +1,454 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes pointer analysis results to a binary snapshot file,
+ * which can be memory-mapped and queried by {@link SnapshotResult}
+ * without re-running the analysis.
+ * <p>
+ * The file consists of int sections (big-endian), in order:
+ * <ol>
+ *     <li>header: magic and version</li>
+ *     <li>strings: count, byte offsets, UTF-8 bytes</li>
+ *     <li>methods (sorted by signature): count, signatures,
+ *     start ids of their variables</li>
+ *     <li>fields (sorted by signature): count, signatures</li>
+ *     <li>variables (grouped by method, sorted by index):
+ *     count, indexes, points-to sets</li>
+ *     <li>objects: count, (type, description, container method,
+ *     container type, allocation statement index)</li>
+ *     <li>contexts: count, (kind, value, statement index)
+ *     of their elements</li>
+ *     <li>context-sensitive objects (sorted by object): count,
+ *     (object, context)</li>
+ *     <li>context-sensitive variables (sorted): count,
+ *     (variable, context), points-to sets</li>
+ *     <li>static fields (sorted): count, fields, points-to sets</li>
+ *     <li>instance fields (sorted): count, (context-sensitive object,
+ *     field), points-to sets</li>
+ *     <li>array indexes (sorted): count, context-sensitive objects,
+ *     points-to sets</li>
+ *     <li>call graph: entry methods, reachable methods,
+ *     (caller, call site index, callee, call kind) of edges</li>
+ *     <li>context-sensitive call graph: reachable methods
+ *     (method, context), entry methods, (caller, call site index,
+ *     callee, call kind) of edges</li>
+ * </ol>
+ * Each group of points-to sets (and the elements of contexts) is stored
+ * as offsets followed by the contents. The points-to sets of variables
+ * are sorted ids of objects, and the others are sorted ids of
+ * context-sensitive objects. Missing elements are represented by -1.
+ */
+public class SnapshotWriter {
+
+    static final int MAGIC = 0x5441_4945; // "TAIE"
+
+    static final int VERSION = 2;
+
+    /**
+     * Number of ints in each record of objects.
+     */
+    static final int OBJ_RECORD = 5;
+
+    /**
+     * Number of ints in each record of context elements.
+     */
+    static final int CONTEXT_ELEMENT_RECORD = 3;
+
+    /**
+     * Kinds of context elements.
+     */
+    static final int CONTEXT_OBJ = 0, CONTEXT_INVOKE = 1, CONTEXT_TYPE = 2;
+
+    private final PointerAnalysisResult result;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<String, Integer> stringIds = Maps.newMap();
+
+    private final Indexer<JMethod> methods;
+
+    private final Indexer<JField> fields;
+
+    private final Indexer<Var> vars;
+
+    private final Indexer<Obj> objs;
+
+    private final Indexer<Context> contexts;
+
+    private final Indexer<CSObj> csObjs;
+
+    private final CallGraph<CSCallSite, CSMethod> csCallGraph;
+
+    private final Indexer<CSMethod> csMethods;
+
+    private SnapshotWriter(PointerAnalysisResult result) {
+        this.result = result;
+        this.callGraph = result.getCallGraph();
+        this.csCallGraph = result.getCSCallGraph();
+        Set<Context> allContexts = Sets.newSet();
+        result.getCSVars().forEach(v -> allContexts.add(v.getContext()));
+        result.getCSObjects().forEach(o -> allContexts.add(o.getContext()));
+        csCallGraph.reachableMethods().forEach(m -> allContexts.add(m.getContext()));
+        Set<Obj> allObjs = Sets.newSet();
+        allObjs.addAll(result.getObjects());
+        Set<JMethod> allMethods = Sets.newSet();
+        for (Context context : allContexts) {
+            for (int i = 0; i < context.getLength(); ++i) {
+                if (context.getElementAt(i) instanceof Obj obj) {
+                    allObjs.add(obj);
+                } else if (context.getElementAt(i) instanceof Invoke invoke) {
+                    allMethods.add(invoke.getContainer());
+                }
+            }
+        }
+        callGraph.reachableMethods().forEach(allMethods::add);
+        result.getVars().forEach(v -> allMethods.add(v.getMethod()));
+        allObjs.forEach(o -> o.getContainerMethod().ifPresent(allMethods::add));
+        methods = new Indexer<>(allMethods,
+                Comparator.comparing(JMethod::getSignature));
+        Set<JField> allFields = Sets.newSet();
+        result.getStaticFields().forEach(f -> allFields.add(f.getField()));
+        result.getInstanceFields().forEach(f -> allFields.add(f.getField()));
+        fields = new Indexer<>(allFields,
+                Comparator.comparing(JField::getSignature));
+        vars = new Indexer<>(result.getVars(),
+                Comparator.comparingInt((Var v) -> methods.getId(v.getMethod()))
+                        .thenComparingInt(Var::getIndex));
+        objs = new Indexer<>(allObjs, null);
+        contexts = new Indexer<>(allContexts, null);
+        csObjs = new Indexer<>(result.getCSObjects(),
+                Comparator.comparingInt((CSObj o) -> objs.getId(o.getObject()))
+                        .thenComparingInt(o -> contexts.getId(o.getContext())));
+        csMethods = new Indexer<>(csCallGraph.reachableMethods().toList(), null);
+    }
+
+    /**
+     * Writes {@code result} to {@code file}.
+     */
+    public static void write(PointerAnalysisResult result, Path file) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            new SnapshotWriter(result).write(out);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write snapshot to " + file, e);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        // collects contents of all sections first, as they may
+        // introduce strings which must be written in advance
+        int[] methodSigs = map(methods.elems, m -> getStringId(m.getSignature()));
+        int[] varStarts = new int[methods.size() + 1];
+        for (Var var : vars.elems) {
+            ++varStarts[methods.getId(var.getMethod()) + 1];
+        }
+        for (int i = 0; i < methods.size(); ++i) {
+            varStarts[i + 1] += varStarts[i];
+        }
+        int[] fieldSigs = map(fields.elems, f -> getStringId(f.getSignature()));
+        int[] varIndexes = map(vars.elems, Var::getIndex);
+        List<int[]> varSets = new ArrayList<>(vars.size());
+        vars.elems.forEach(v -> varSets.add(toIds(result.getPointsToSet(v))));
+        int[] objRecords = new int[objs.size() * OBJ_RECORD];
+        for (int i = 0; i < objs.size(); ++i) {
+            Obj obj = objs.elems.get(i);
+            int base = i * OBJ_RECORD;
+            objRecords[base] = obj.getType() == null ? -1 :
+                    getStringId(obj.getType().toString());
+            objRecords[base + 1] = getStringId(obj.toString());
+            objRecords[base + 2] = obj.getContainerMethod()
+                    .map(methods::getId).orElse(-1);
+            objRecords[base + 3] = obj.getContainerType() == null ? -1 :
+                    getStringId(obj.getContainerType().toString());
+            objRecords[base + 4] = obj.getAllocation() instanceof Stmt stmt &&
+                    obj.getContainerMethod().isPresent() ? stmt.getIndex() : -1;
+        }
+        List<int[]> contextElems = new ArrayList<>(contexts.size());
+        contexts.elems.forEach(c -> contextElems.add(toElementRecords(c)));
+        int[] csObjRecords = new int[csObjs.size() * 2];
+        for (int i = 0; i < csObjs.size(); ++i) {
+            CSObj csObj = csObjs.elems.get(i);
+            csObjRecords[i * 2] = objs.getId(csObj.getObject());
+            csObjRecords[i * 2 + 1] = contexts.getId(csObj.getContext());
+        }
+        List<CSVar> sortedCSVars = new ArrayList<>(result.getCSVars());
+        sortedCSVars.sort(Comparator.comparingInt((CSVar v) -> vars.getId(v.getVar()))
+                .thenComparingInt(v -> contexts.getId(v.getContext())));
+        int[] csVarRecords = new int[sortedCSVars.size() * 2];
+        List<int[]> csVarSets = new ArrayList<>(sortedCSVars.size());
+        for (int i = 0; i < sortedCSVars.size(); ++i) {
+            CSVar csVar = sortedCSVars.get(i);
+            csVarRecords[i * 2] = vars.getId(csVar.getVar());
+            csVarRecords[i * 2 + 1] = contexts.getId(csVar.getContext());
+            csVarSets.add(toCSIds(csVar));
+        }
+        List<StaticField> sortedSFields = new ArrayList<>(result.getStaticFields());
+        sortedSFields.sort(Comparator.comparingInt(f -> fields.getId(f.getField())));
+        int[] staticFields = map(sortedSFields, f -> fields.getId(f.getField()));
+        List<int[]> staticSets = new ArrayList<>(sortedSFields.size());
+        sortedSFields.forEach(f -> staticSets.add(toCSIds(f)));
+        List<InstanceField> sortedIFields = new ArrayList<>(result.getInstanceFields());
+        sortedIFields.sort(Comparator.comparingInt((InstanceField f) -> csObjs.getId(f.getBase()))
+                .thenComparingInt(f -> fields.getId(f.getField())));
+        int[] iFieldRecords = new int[sortedIFields.size() * 2];
+        List<int[]> iFieldSets = new ArrayList<>(sortedIFields.size());
+        for (int i = 0; i < sortedIFields.size(); ++i) {
+            InstanceField iField = sortedIFields.get(i);
+            iFieldRecords[i * 2] = csObjs.getId(iField.getBase());
+            iFieldRecords[i * 2 + 1] = fields.getId(iField.getField());
+            iFieldSets.add(toCSIds(iField));
+        }
+        List<ArrayIndex> sortedArrays = new ArrayList<>(result.getArrayIndexes());
+        sortedArrays.sort(Comparator.comparingInt(a -> csObjs.getId(a.getArray())));
+        int[] arrays = map(sortedArrays, a -> csObjs.getId(a.getArray()));
+        List<int[]> arraySets = new ArrayList<>(sortedArrays.size());
+        sortedArrays.forEach(a -> arraySets.add(toCSIds(a)));
+        int[] entries = callGraph.entryMethods().mapToInt(methods::getId).toArray();
+        int[] reachable = callGraph.reachableMethods().mapToInt(methods::getId).toArray();
+        List<Edge<Invoke, JMethod>> edges = callGraph.edges().toList();
+        int[] edgeRecords = new int[edges.size() * 4];
+        for (int i = 0; i < edges.size(); ++i) {
+            Edge<Invoke, JMethod> edge = edges.get(i);
+            edgeRecords[i * 4] = methods.getId(callGraph.getContainerOf(edge.getCallSite()));
+            edgeRecords[i * 4 + 1] = edge.getCallSite().getIndex();
+            edgeRecords[i * 4 + 2] = methods.getId(edge.getCallee());
+            edgeRecords[i * 4 + 3] = edge.getKind().ordinal();
+        }
+        int[] csMethodRecords = new int[csMethods.size() * 2];
+        for (int i = 0; i < csMethods.size(); ++i) {
+            CSMethod csMethod = csMethods.elems.get(i);
+            csMethodRecords[i * 2] = methods.getId(csMethod.getMethod());
+            csMethodRecords[i * 2 + 1] = contexts.getId(csMethod.getContext());
+        }
+        int[] csEntries = csCallGraph.entryMethods().mapToInt(csMethods::getId).toArray();
+        List<Edge<CSCallSite, CSMethod>> csEdges = csCallGraph.edges().toList();
+        int[] csEdgeRecords = new int[csEdges.size() * 4];
+        for (int i = 0; i < csEdges.size(); ++i) {
+            Edge<CSCallSite, CSMethod> edge = csEdges.get(i);
+            csEdgeRecords[i * 4] = csMethods.getId(
+                    csCallGraph.getContainerOf(edge.getCallSite()));
+            csEdgeRecords[i * 4 + 1] = edge.getCallSite().getCallSite().getIndex();
+            csEdgeRecords[i * 4 + 2] = csMethods.getId(edge.getCallee());
+            csEdgeRecords[i * 4 + 3] = edge.getKind().ordinal();
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeStrings(out);
+        writeInts(out, methodSigs, true);
+        writeInts(out, varStarts, false);
+        writeInts(out, fieldSigs, true);
+        writeInts(out, varIndexes, true);
+        writeSets(out, varSets);
+        writeRecords(out, objRecords, OBJ_RECORD);
+        out.writeInt(contextElems.size());
+        writeSets(out, contextElems);
+        writeRecords(out, csObjRecords, 2);
+        writeRecords(out, csVarRecords, 2);
+        writeSets(out, csVarSets);
+        writeInts(out, staticFields, true);
+        writeSets(out, staticSets);
+        writeRecords(out, iFieldRecords, 2);
+        writeSets(out, iFieldSets);
+        writeInts(out, arrays, true);
+        writeSets(out, arraySets);
+        writeInts(out, entries, true);
+        writeInts(out, reachable, true);
+        writeRecords(out, edgeRecords, 4);
+        writeRecords(out, csMethodRecords, 2);
+        writeInts(out, csEntries, true);
+        writeRecords(out, csEdgeRecords, 4);
+    }
+
+    private int getStringId(String s) {
+        return stringIds.computeIfAbsent(s, __ -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+    }
+
+    private int[] toIds(Set<Obj> pts) {
+        return sorted(pts.stream().mapToInt(objs::getId).toArray());
+    }
+
+    private int[] toCSIds(Pointer pointer) {
+        return sorted(pointer.getPointsToSet().objects()
+                .mapToInt(csObjs::getId).toArray());
+    }
+
+    /**
+     * @return the records of the elements of given context,
+     * see {@link #CONTEXT_ELEMENT_RECORD}.
+     */
+    private int[] toElementRecords(Context context) {
+        int[] records = new int[context.getLength() * CONTEXT_ELEMENT_RECORD];
+        for (int i = 0; i < context.getLength(); ++i) {
+            int base = i * CONTEXT_ELEMENT_RECORD;
+            Object elem = context.getElementAt(i);
+            if (elem instanceof Obj obj) {
+                records[base] = CONTEXT_OBJ;
+                records[base + 1] = objs.getId(obj);
+                records[base + 2] = -1;
+            } else if (elem instanceof Invoke invoke) {
+                records[base] = CONTEXT_INVOKE;
+                records[base + 1] = methods.getId(invoke.getContainer());
+                records[base + 2] = invoke.getIndex();
+            } else if (elem instanceof Type type) {
+                records[base] = CONTEXT_TYPE;
+                records[base + 1] = getStringId(type.toString());
+                records[base + 2] = -1;
+            } else {
+                throw new AnalysisException(
+                        "Unsupported context element in snapshot: " + elem);
+            }
+        }
+        return records;
+    }
+
+    private static int[] sorted(int[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static <T> int[] map(List<T> elems, ToIntFunction<T> f) {
+        return elems.stream().mapToInt(f).toArray();
+    }
+
+    private void writeStrings(DataOutputStream out) throws IOException {
+        List<byte[]> bytes = new ArrayList<>(strings.size());
+        strings.forEach(s -> bytes.add(s.getBytes(StandardCharsets.UTF_8)));
+        out.writeInt(bytes.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] b : bytes) {
+            offset += b.length;
+            out.writeInt(offset);
+        }
+        for (byte[] b : bytes) {
+            out.write(b);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints,
+                                  boolean withCount) throws IOException {
+        if (withCount) {
+            out.writeInt(ints.length);
+        }
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    private static void writeRecords(DataOutputStream out, int[] records,
+                                     int recordSize) throws IOException {
+        out.writeInt(records.length / recordSize);
+        writeInts(out, records, false);
+    }
+
+    /**
+     * Writes offsets (count + 1 ints) followed by the contents of the sets.
+     * The count is given by the section which the sets belong to.
+     */
+    private static void writeSets(DataOutputStream out, List<int[]> sets)
+            throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for (int[] set : sets) {
+            offset += set.length;
+            out.writeInt(offset);
+        }
+        for (int[] set : sets) {
+            writeInts(out, set, false);
+        }
+    }
+
+    /**
+     * Assigns consecutive ids to elements.
+     */
+    private static class Indexer<T> {
+
+        private final List<T> elems;
+
+        private final Map<T, Integer> ids;
+
+        private Indexer(Collection<T> elems, Comparator<T> comparator) {
+            this.elems = new ArrayList<>(elems);
+            if (comparator != null) {
+                this.elems.sort(comparator);
+            }
+            this.ids = Maps.newMap(elems.size());
+            for (int i = 0; i < this.elems.size(); ++i) {
+                ids.put(this.elems.get(i), i);
+            }
+        }
+
+        private int getId(T elem) {
+            return ids.get(elem);
+        }
+
+        private int size() {
+            return elems.size();
+        }
+    }
+}
@@ -22,13 +22,53 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public class CSPTATest {
 
     static final String DIR = "cspta";
 
+    /**
+     * Test cases, each of which is given by its main class followed by
+     * its options.
+     */
+    static final List<List<String>> CASES = List.of(
+            List.of("New"),
+            List.of("Assign"),
+            List.of("StoreLoad"),
+            List.of("Call"),
+            List.of("InstanceField"),
+            List.of("OneCall", "cs:1-call"),
+            List.of("OneObject", "cs:1-obj"),
+            List.of("OneType", "cs:1-type"),
+            List.of("TwoCall", "cs:2-call"),
+            List.of("TwoObject", "cs:2-obj"),
+            List.of("TwoType", "cs:2-type"),
+            List.of("StaticField"),
+            List.of("Array"));
+
     @Test
     public void testNew() {
         Tests.testCSPTA(DIR, "New");
@@ -93,4 +133,153 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testWorkListLIFO() {
+        testWorkList("lifo");
+    }
+
+    @Test
+    public void testWorkListLRF() {
+        testWorkList("lrf");
+    }
+
+    @Test
+    public void testWorkListTopo() {
+        testWorkList("topo");
+    }
+
+    @Test
+    public void testWorkListTwoPhase() {
+        testWorkList("two-phase");
+    }
+
+    /**
+     * The work-list policy only affects the order of propagation,
+     * thus the results are the same as the default (FIFO) policy.
+     */
+    private static void testWorkList(String policy) {
+        testCases("work-list:" + policy);
+    }
+
+    /**
+     * With type filtering, the objects flowing to a pointer are filtered
+     * by its declared type, thus in TypeFilter, each cast variable points
+     * to fewer objects than the variable it casts. In TypeFilter.loop(),
+     * the cast is in a cycle of pointers of different types, which is not
+     * collapsed by cycle detection, and it must be filtered as well.
+     */
+    @Test
+    public void testTypeFilter() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/" + DIR, "-m", "TypeFilter",
+                "-a", CSPTA.ID + "=implicit-entries:false;only-app:true;type-filter:true"});
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        int casts = 0;
+        for (JMethod method : World.get().getClassHierarchy()
+                .getClass("TypeFilter").getDeclaredMethods()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Cast cast) {
+                    ++casts;
+                    Set<Obj> from = result.getPointsToSet(cast.getRValue().getValue());
+                    Set<Obj> to = result.getPointsToSet(cast.getLValue());
+                    Type type = cast.getRValue().getCastType();
+                    String message = cast.toString();
+                    Assert.assertFalse(message, to.isEmpty());
+                    Assert.assertTrue(message, from.containsAll(to));
+                    Assert.assertTrue(message, to.size() < from.size());
+                    Assert.assertTrue(message, to.stream().allMatch(obj ->
+                            World.get().getTypeSystem().isSubtype(type, obj.getType())));
+                }
+            }
+        }
+        Assert.assertEquals(3, casts);
+    }
+
+    /**
+     * Hash-consing only shares the objects of equal points-to sets,
+     * thus the results are the same as without it. The pool of shared
+     * sets is released when each run finishes.
+     */
+    @Test
+    public void testHashCons() {
+        CASES.forEach(testCase -> {
+            testCase(testCase, "hash-cons:true");
+            Assert.assertNull(PointsToSetFactory.getHashConsingStatistics());
+        });
+    }
+
+    /**
+     * Cycle detection (enabled by default) collapses the pointers in
+     * cycles, and the collapsed pointers share one points-to set, which
+     * does not change the results. Cycle contains cycles of copies,
+     * of field accesses and of calls.
+     */
+    @Test
+    public void testCycleDetection() {
+        testCases("cycle-detection:false");
+        List<String> expected = analyzeCycle(false);
+        List<String> collapsed = analyzeCycle(true);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, collapsed);
+    }
+
+    /**
+     * Analyzes Cycle and checks whether some pointers are collapsed.
+     *
+     * @return the points-to sets of the variables in Cycle.
+     */
+    private static List<String> analyzeCycle(boolean cycleDetection) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/" + DIR, "-m", "Cycle",
+                "-a", CSPTA.ID + "=implicit-entries:false;only-app:true;" +
+                "cycle-detection:" + cycleDetection});
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Set<PointsToSet> sets = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.getCSVars().stream()
+                .map(CSVar::getPointsToSet)
+                .forEach(sets::add);
+        Assert.assertEquals(cycleDetection, sets.size() < result.getCSVars().size());
+        return result.getVars()
+                .stream()
+                .filter(v -> v.getMethod().getDeclaringClass().getName().equals("Cycle"))
+                .map(v -> v.getMethod() + "/" + v + " -> " + result.getPointsToSet(v).stream()
+                        .map(Object::toString).sorted().toList())
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Saves the results of each test case to a snapshot, and then loads
+     * the snapshot instead of running the analysis, so that the results
+     * restored from the snapshot are compared with the expected results.
+     */
+    @Test
+    public void testSnapshot() throws IOException {
+        // relative path, as the option parser would split the colon
+        // of an absolute path on Windows
+        Path dir = Files.createDirectories(Path.of("output"));
+        for (List<String> testCase : CASES) {
+            Path snapshot = Files.createTempFile(dir, testCase.get(0), ".snapshot");
+            try {
+                testCase(testCase, "snapshot-action:save", "snapshot:" + snapshot);
+                testCase(testCase, "snapshot-action:load", "snapshot:" + snapshot);
+            } finally {
+                Files.delete(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Runs all test cases with an additional option.
+     */
+    static void testCases(String opt) {
+        CASES.forEach(testCase -> testCase(testCase, opt));
+    }
+
+    private static void testCase(List<String> testCase, String... extraOpts) {
+        List<String> opts = new ArrayList<>(testCase.subList(1, testCase.size()));
+        Collections.addAll(opts, extraOpts);
+        Tests.testCSPTA(DIR, testCase.get(0), opts.toArray(new String[0]));
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class WorkListTest {
+
+    /**
+     * The pointers are added in the reverse order of their ranks,
+     * thus the topological order differs from FIFO from the first entry.
+     */
+    @Test
+    public void testTopo() {
+        Assert.assertEquals(List.of("p1", "p2", "p3"), poll(WorkList.Policy.FIFO));
+        Assert.assertEquals(List.of("p3", "p2", "p1"), poll(WorkList.Policy.TOPO));
+    }
+
+    private static List<String> poll(WorkList.Policy policy) {
+        MockPointer p1 = new MockPointer("p1");
+        MockPointer p2 = new MockPointer("p2");
+        MockPointer p3 = new MockPointer("p3");
+        Map<Pointer, Integer> ranks = Map.of(p1, 2, p2, 1, p3, 0);
+        WorkList workList = new WorkList(policy, () -> ranks);
+        for (MockPointer p : List.of(p1, p2, p3)) {
+            workList.addEntry(p, PointsToSetFactory.make());
+        }
+        List<String> result = new ArrayList<>();
+        while (!workList.isEmpty()) {
+            result.add(((MockPointer) workList.pollEntry().pointer()).name);
+        }
+        return result;
+    }
+
+    private record MockPointer(String name) implements Pointer {
+
+        @Override
+        public PointsToSet getPointsToSet() {
+            return null;
+        }
+
+        @Override
+        public void setPointsToSet(PointsToSet pointsToSet) {
+        }
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+public class Cycle {
+
+    public static void main(String[] args) {
+        copy();
+        field();
+        CycleNode n = recursion(new CycleNode(), 3);
+    }
+
+    static void copy() {
+        CycleNode a = new CycleNode();
+        CycleNode b = new CycleNode();
+        CycleNode c;
+        for (int i = 0; i < 3; ++i) {
+            c = b;
+            b = a;
+            a = c;
+        }
+    }
+
+    static void field() {
+        CycleNode x = new CycleNode();
+        x.next = new CycleNode();
+        CycleNode y = x.next;
+        for (int i = 0; i < 3; ++i) {
+            x.next = y;
+            y = x.next;
+        }
+        y.next = x;
+    }
+
+    static CycleNode recursion(CycleNode n, int depth) {
+        if (depth == 0) {
+            return n;
+        }
+        CycleNode r = recursion(n, depth - 1);
+        return r;
+    }
+}
+
+class CycleNode {
+    CycleNode next;
+}
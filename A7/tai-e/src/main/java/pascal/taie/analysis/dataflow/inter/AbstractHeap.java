@@ -0,0 +1,133 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Abstract heap for alias-aware constant propagation.
+ * <p>
+ * Each heap location, i.e., (object, field) for instance fields,
+ * (null, field) for static fields and (array object, null) for arrays,
+ * holds the meet of the values of all stores to it. A store updates
+ * the locations pointed to by its base variable, and a load reads the
+ * meet over the locations pointed to by its base variable. Loads are
+ * recorded as readers of the locations they read, so that only them
+ * are re-processed when a location changes.
+ * <p>
+ * Compared to {@link AliasIndex}, array locations are index-insensitive.
+ */
+class AbstractHeap {
+
+    private final PointerAnalysisResult pta;
+
+    private final ConstantPropagation cp;
+
+    private final Map<Pair<Obj, JField>, Value> values = Maps.newMap();
+
+    private final MultiMap<Pair<Obj, JField>, Stmt> readers = Maps.newMultiMap();
+
+    /**
+     * Cache of the heap locations accessed by each load and store.
+     */
+    private final Map<Stmt, List<Pair<Obj, JField>>> locations = Maps.newMap();
+
+    AbstractHeap(PointerAnalysisResult pta, ConstantPropagation cp) {
+        this.pta = pta;
+        this.cp = cp;
+    }
+
+    /**
+     * @return the value that {@code load} (a {@link pascal.taie.ir.stmt.LoadField}
+     * or {@link LoadArray}) reads from the heap.
+     */
+    Value load(Stmt load) {
+        Value value = Value.getUndef();
+        for (Pair<Obj, JField> loc : getLocations(load)) {
+            readers.put(loc, load);
+            value = cp.meetValue(value, values.getOrDefault(loc, Value.getUndef()));
+        }
+        return value;
+    }
+
+    /**
+     * Meets {@code value} into the heap locations written by {@code store}
+     * (a {@link pascal.taie.ir.stmt.StoreField} or {@link StoreArray}).
+     *
+     * @return the loads that read the changed locations.
+     */
+    Set<Stmt> store(Stmt store, Value value) {
+        Set<Stmt> affected = Sets.newHybridSet();
+        for (Pair<Obj, JField> loc : getLocations(store)) {
+            Value oldValue = values.getOrDefault(loc, Value.getUndef());
+            Value newValue = cp.meetValue(oldValue, value);
+            if (!newValue.equals(oldValue)) {
+                values.put(loc, newValue);
+                affected.addAll(readers.get(loc));
+            }
+        }
+        return affected;
+    }
+
+    private List<Pair<Obj, JField>> getLocations(Stmt stmt) {
+        return locations.computeIfAbsent(stmt, s -> {
+            if (s instanceof FieldStmt<?, ?> fieldStmt) {
+                JField field = fieldStmt.getFieldRef().resolve();
+                if (fieldStmt.isStatic()) {
+                    return List.of(new Pair<>(null, field));
+                }
+                Var base = ((InstanceFieldAccess) fieldStmt.getFieldAccess()).getBase();
+                return pta.getPointsToSet(base)
+                        .stream()
+                        .map(obj -> new Pair<>(obj, field))
+                        .toList();
+            } else {
+                Var base = s instanceof LoadArray load ?
+                        load.getArrayAccess().getBase() :
+                        ((StoreArray) s).getArrayAccess().getBase();
+                return pta.getPointsToSet(base)
+                        .stream()
+                        .map(obj -> new Pair<Obj, JField>(obj, null))
+                        .toList();
+            }
+        });
+    }
+}
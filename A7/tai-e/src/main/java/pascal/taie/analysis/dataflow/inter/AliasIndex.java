@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of heap accesses for alias-aware constant propagation.
+ * <p>
+ * The index is built once from {@link PointerAnalysisResult}. It maps
+ * each abstract object and field (instance fields), each array object
+ * (arrays), and each static field to the statements that store to and
+ * load from them. Then the stores that a load may read (and the loads
+ * that may read a store) are the union over the objects pointed to by
+ * the base variable, which avoids checking all pairs of stores and loads
+ * for aliases. The results are cached for each statement.
+ */
+class AliasIndex {
+
+    private final PointerAnalysisResult pta;
+
+    /**
+     * Map from (object, field) or (array object, null) to the stores.
+     */
+    private final MultiMap<Pair<Obj, JField>, Stmt> objStores = Maps.newMultiMap();
+
+    /**
+     * Map from (object, field) or (array object, null) to the loads.
+     */
+    private final MultiMap<Pair<Obj, JField>, Stmt> objLoads = Maps.newMultiMap();
+
+    private final MultiMap<JField, Stmt> staticStores = Maps.newMultiMap();
+
+    private final MultiMap<JField, Stmt> staticLoads = Maps.newMultiMap();
+
+    /**
+     * Cache of the loads (stores) that may alias given store (load).
+     */
+    private final Map<Stmt, Set<Stmt>> aliases = Maps.newMap();
+
+    AliasIndex(ICFG<JMethod, Stmt> icfg, PointerAnalysisResult pta) {
+        this.pta = pta;
+        for (Stmt stmt : icfg) {
+            if (stmt instanceof StoreField store) {
+                index(store, staticStores, objStores);
+            } else if (stmt instanceof LoadField load) {
+                index(load, staticLoads, objLoads);
+            } else if (stmt instanceof StoreArray store) {
+                index(store, store.getArrayAccess().getBase(), objStores);
+            } else if (stmt instanceof LoadArray load) {
+                index(load, load.getArrayAccess().getBase(), objLoads);
+            }
+        }
+    }
+
+    private void index(Stmt stmt, Var arrayBase,
+                       MultiMap<Pair<Obj, JField>, Stmt> objAccesses) {
+        pta.getPointsToSet(arrayBase).forEach(
+                obj -> objAccesses.put(new Pair<>(obj, null), stmt));
+    }
+
+    private void index(FieldStmt<?, ?> stmt,
+                       MultiMap<JField, Stmt> staticAccesses,
+                       MultiMap<Pair<Obj, JField>, Stmt> objAccesses) {
+        JField field = stmt.getFieldRef().resolve();
+        if (stmt.isStatic()) {
+            staticAccesses.put(field, stmt);
+        } else {
+            InstanceFieldAccess access = (InstanceFieldAccess) stmt.getFieldAccess();
+            pta.getPointsToSet(access.getBase()).forEach(
+                    obj -> objAccesses.put(new Pair<>(obj, field), stmt));
+        }
+    }
+
+    /**
+     * @return the stores that {@code load} (a {@link LoadField}
+     * or {@link LoadArray}) may read.
+     */
+    Set<Stmt> getStoresOf(Stmt load) {
+        return aliases.computeIfAbsent(load,
+                __ -> collect(load, staticStores, objStores));
+    }
+
+    /**
+     * @return the loads that may read {@code store} (a {@link StoreField}
+     * or {@link StoreArray}).
+     */
+    Set<Stmt> getLoadsOf(Stmt store) {
+        return aliases.computeIfAbsent(store,
+                __ -> collect(store, staticLoads, objLoads));
+    }
+
+    private Set<Stmt> collect(Stmt stmt,
+                              MultiMap<JField, Stmt> staticAccesses,
+                              MultiMap<Pair<Obj, JField>, Stmt> objAccesses) {
+        Set<Stmt> result = Sets.newHybridSet();
+        if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+            JField field = fieldStmt.getFieldRef().resolve();
+            if (fieldStmt.isStatic()) {
+                result.addAll(staticAccesses.get(field));
+            } else {
+                InstanceFieldAccess access = (InstanceFieldAccess) fieldStmt.getFieldAccess();
+                pta.getPointsToSet(access.getBase()).forEach(obj ->
+                        result.addAll(objAccesses.get(new Pair<>(obj, field))));
+            }
+        } else {
+            Var arrayBase = stmt instanceof LoadArray load ?
+                    load.getArrayAccess().getBase() :
+                    ((StoreArray) stmt).getArrayAccess().getBase();
+            pta.getPointsToSet(arrayBase).forEach(obj ->
+                    result.addAll(objAccesses.get(new Pair<>(obj, null))));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
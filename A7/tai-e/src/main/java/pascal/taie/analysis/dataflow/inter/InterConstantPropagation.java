@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -37,7 +38,11 @@ import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 
 import java.util.List;
@@ -54,6 +59,20 @@ public class InterConstantPropagation extends
 
     private PointerAnalysisResult pta;
 
+    /**
+     * Index from loads to the stores they may read, and vice versa.
+     * Only available when option {@code alias-aware} is enabled
+     * and {@code alias-mode} is {@code index}.
+     */
+    private AliasIndex aliasIndex;
+
+    /**
+     * Abstract heap holding the values of fields and arrays.
+     * Only available when option {@code alias-aware} is enabled
+     * and {@code alias-mode} is {@code heap}.
+     */
+    private AbstractHeap heap;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -61,10 +80,15 @@ public class InterConstantPropagation extends
 
     @Override
     protected void initialize() {
-        String ptaId = getOptions().getString("pta");
-        //PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
-        pta = World.get().getResult(ptaId);
+        if (getOptions().getBooleanOrDefault("alias-aware", false)) {
+            String ptaId = getOptions().getString("pta");
+            pta = World.get().getResult(ptaId);
+            if ("heap".equals(getOptions().getString("alias-mode"))) {
+                heap = new AbstractHeap(pta, cp);
+            } else {
+                aliasIndex = new AliasIndex(icfg, pta);
+            }
+        }
     }
 
     @Override
@@ -91,11 +115,6 @@ public class InterConstantPropagation extends
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
-
-        if(stmt instanceof StoreField) {
-            
-        }
-
         CPFact temp = out.copy();
         out.clear();
         out.copyFrom(in);
@@ -105,9 +124,75 @@ public class InterConstantPropagation extends
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
+        if (aliasIndex != null || heap != null) {
+            if (stmt instanceof LoadField || stmt instanceof LoadArray) {
+                return transferLoad(stmt, in, out);
+            }
+            boolean changed = cp.transferNode(stmt, in, out);
+            if (heap != null) {
+                if (stmt instanceof StoreField store) {
+                    heap.store(store, in.get(store.getRValue()))
+                            .forEach(solver::addToWorkList);
+                } else if (stmt instanceof StoreArray store) {
+                    heap.store(store, in.get(store.getRValue()))
+                            .forEach(solver::addToWorkList);
+                }
+            } else if (changed && (stmt instanceof StoreField || stmt instanceof StoreArray)) {
+                // only the loads that may read this store depend on it
+                aliasIndex.getLoadsOf(stmt).forEach(solver::addToWorkList);
+            }
+            return changed;
+        }
         return cp.transferNode(stmt, in, out);
     }
 
+    /**
+     * Meets the values stored by all stores that the load may read,
+     * or reads the value from the abstract heap in heap mode.
+     */
+    private boolean transferLoad(Stmt load, CPFact in, CPFact out) {
+        CPFact temp = out.copy();
+        out.clear();
+        out.copyFrom(in);
+        Var lVar = load instanceof LoadField loadField ?
+                loadField.getLValue() : ((LoadArray) load).getLValue();
+        if (heap != null) {
+            if (ConstantPropagation.canHoldInt(lVar)) {
+                out.update(lVar, heap.load(load));
+            }
+        } else if (ConstantPropagation.canHoldInt(lVar)) {
+            Value value = Value.getUndef();
+            for (Stmt store : aliasIndex.getStoresOf(load)) {
+                CPFact storeOut = solver.getOutFact(store);
+                if (store instanceof StoreField storeField) {
+                    value = cp.meetValue(value, storeOut.get(storeField.getRValue()));
+                } else {
+                    StoreArray storeArray = (StoreArray) store;
+                    if (mayAliasIndex(
+                            in.get(((LoadArray) load).getArrayAccess().getIndex()),
+                            storeOut.get(storeArray.getArrayAccess().getIndex()))) {
+                        value = cp.meetValue(value, storeOut.get(storeArray.getRValue()));
+                    }
+                }
+            }
+            out.update(lVar, value);
+        }
+        return !out.equals(temp);
+    }
+
+    /**
+     * @return true if two array indexes may be the same.
+     */
+    private static boolean mayAliasIndex(Value i1, Value i2) {
+        if (i1.isUndef() || i2.isUndef()) {
+            return false;
+        }
+        if (i1.isConstant() && i2.isConstant()) {
+            return i1.getConstant() == i2.getConstant();
+        }
+        return true;
+    }
+
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
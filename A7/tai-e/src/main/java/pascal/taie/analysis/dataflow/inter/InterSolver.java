@@ -27,10 +27,7 @@ import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
 
-import java.util.LinkedList;
 import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Solver for inter-procedural data-flow analysis.
@@ -75,7 +72,8 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        workList = new LinkedList<>(icfg.getNodes());
+        workList = new SetQueue<>();
+        workList.addAll(icfg.getNodes());
         while(!workList.isEmpty()) {
             Node node = workList.poll();
             Fact inFact = result.getInFact(node);
@@ -88,4 +86,17 @@ class InterSolver<Method, Node, Fact> {
             }
         }
     }
+
+    Fact getOutFact(Node node) {
+        return result.getOutFact(node);
+    }
+
+    /**
+     * Re-enqueues {@code node} whose in-fact is unchanged but whose
+     * transfer depends on facts of other (non-predecessor) nodes,
+     * e.g., loads that may read a changed store.
+     */
+    void addToWorkList(Node node) {
+        workList.add(node);
+    }
 }
@@ -0,0 +1,252 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact, immutable representation of the method-level structure of
+ * a call graph, i.e., the callers and callees of each method.
+ * Each method is mapped to an int index, and the callees (successors) and
+ * callers (predecessors) of all methods are stored in compressed sparse
+ * row (CSR) arrays. The sets returned by this class are views over the
+ * arrays, which are cached, so that the queries do not allocate new
+ * collections.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+final class CompactIndex<CallSite, Method> {
+
+    private final Map<Method, Integer> methodToIndex;
+
+    private final List<Method> methods;
+
+    /**
+     * Callees of method i are {@code succs[succOffsets[i]..succOffsets[i+1])},
+     * sorted by index.
+     */
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    /**
+     * Callers of method i are {@code preds[predOffsets[i]..predOffsets[i+1])},
+     * sorted by index.
+     */
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final Set<Method>[] succViews;
+
+    private final Set<Method>[] predViews;
+
+    private final Set<MethodEdge<CallSite, Method>>[] outEdges;
+
+    private final Set<MethodEdge<CallSite, Method>>[] inEdges;
+
+    CompactIndex(AbstractCallGraph<CallSite, Method> callGraph) {
+        methodToIndex = Maps.newMap(callGraph.getNumberOfMethods());
+        methods = new ArrayList<>(callGraph.getNumberOfMethods());
+        callGraph.reachableMethods().forEach(this::indexOf);
+        // collect callees of each method
+        List<int[]> callees = new ArrayList<>(methods.size());
+        for (int i = 0; i < methods.size(); ++i) { // methods may grow
+            Method caller = methods.get(i);
+            int[] targets = callGraph.callSitesIn(caller)
+                    .flatMap(cs -> callGraph.getCalleesOf(cs).stream())
+                    .mapToInt(this::indexOf)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            callees.add(targets);
+        }
+        int n = methods.size();
+        // build CSR arrays for successors
+        succOffsets = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            succOffsets[i + 1] = succOffsets[i] + callees.get(i).length;
+        }
+        succs = new int[succOffsets[n]];
+        int[] predCounts = new int[n];
+        for (int i = 0; i < n; ++i) {
+            int[] targets = callees.get(i);
+            System.arraycopy(targets, 0, succs, succOffsets[i], targets.length);
+            for (int t : targets) {
+                ++predCounts[t];
+            }
+        }
+        // build CSR arrays for predecessors, iterating callers in
+        // ascending order keeps each predecessor slice sorted
+        predOffsets = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            predOffsets[i + 1] = predOffsets[i] + predCounts[i];
+        }
+        preds = new int[predOffsets[n]];
+        int[] cursors = Arrays.copyOf(predOffsets, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = succOffsets[i]; j < succOffsets[i + 1]; ++j) {
+                preds[cursors[succs[j]]++] = i;
+            }
+        }
+        succViews = newSetArray(n);
+        predViews = newSetArray(n);
+        outEdges = newSetArray(n);
+        inEdges = newSetArray(n);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Set<T>[] newSetArray(int n) {
+        return new Set[n];
+    }
+
+    private int indexOf(Method method) {
+        return methodToIndex.computeIfAbsent(method, m -> {
+            methods.add(m);
+            return methods.size() - 1;
+        });
+    }
+
+    Set<Method> getSuccsOf(Method method) {
+        Integer i = methodToIndex.get(method);
+        if (i == null) {
+            return Set.of();
+        }
+        Set<Method> view = succViews[i];
+        if (view == null) {
+            view = succViews[i] = new SliceView(succs,
+                    succOffsets[i], succOffsets[i + 1]);
+        }
+        return view;
+    }
+
+    Set<Method> getPredsOf(Method method) {
+        Integer i = methodToIndex.get(method);
+        if (i == null) {
+            return Set.of();
+        }
+        Set<Method> view = predViews[i];
+        if (view == null) {
+            view = predViews[i] = new SliceView(preds,
+                    predOffsets[i], predOffsets[i + 1]);
+        }
+        return view;
+    }
+
+    boolean hasEdge(Method source, Method target) {
+        Integer s = methodToIndex.get(source);
+        Integer t = methodToIndex.get(target);
+        return s != null && t != null &&
+                Arrays.binarySearch(succs, succOffsets[s], succOffsets[s + 1], t) >= 0;
+    }
+
+    Set<MethodEdge<CallSite, Method>> getOutEdgesOf(
+            AbstractCallGraph<CallSite, Method> callGraph, Method method) {
+        Integer i = methodToIndex.get(method);
+        if (i == null) {
+            return Set.of();
+        }
+        Set<MethodEdge<CallSite, Method>> edges = outEdges[i];
+        if (edges == null) {
+            edges = outEdges[i] = Collections.unmodifiableSet(
+                    callGraph.computeOutEdgesOf(method));
+        }
+        return edges;
+    }
+
+    Set<MethodEdge<CallSite, Method>> getInEdgesOf(
+            AbstractCallGraph<CallSite, Method> callGraph, Method method) {
+        Integer i = methodToIndex.get(method);
+        if (i == null) {
+            return Set.of();
+        }
+        Set<MethodEdge<CallSite, Method>> edges = inEdges[i];
+        if (edges == null) {
+            edges = inEdges[i] = Collections.unmodifiableSet(
+                    callGraph.computeInEdgesOf(method));
+        }
+        return edges;
+    }
+
+    /**
+     * Immutable set view of the methods whose indexes are stored
+     * in a sorted slice of an int array.
+     */
+    private class SliceView extends AbstractSet<Method> {
+
+        private final int[] array;
+
+        private final int from;
+
+        private final int to;
+
+        private SliceView(int[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer i = methodToIndex.get(o);
+            return i != null && Arrays.binarySearch(array, from, to, i) >= 0;
+        }
+
+        @Override
+        public Iterator<Method> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public Method next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return methods.get(array[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
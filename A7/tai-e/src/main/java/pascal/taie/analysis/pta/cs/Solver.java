@@ -333,6 +333,7 @@ class Solver {
 
     PointerAnalysisResult getResult() {
         if (result == null) {
+            callGraph.freeze();
             result = new PointerAnalysisResultImpl(csManager, callGraph);
         }
         return result;
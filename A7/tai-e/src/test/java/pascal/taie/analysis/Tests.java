@@ -61,6 +61,29 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        doTest(main, classPath, id, getExpectedFile(classPath, main, id), opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case, whose results under
+     * the given options differ from the default expected results.
+     * The expected results are given in file
+     * {@code <main>-<id>-<variant>-expected.txt}.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param id        ID of the analysis to be executed
+     * @param variant   name of the variant of expected results
+     * @param opts      options for the analysis
+     */
+    public static void testVariant(String main, String classPath, String id,
+                                   String variant, String... opts) {
+        doTest(main, classPath, id,
+                getExpectedFile(classPath, main, id + "-" + variant), opts);
+    }
+
+    private static void doTest(String main, String classPath, String id,
+                               String file, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -82,7 +105,6 @@ public final class Tests {
         }
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
@@ -26,13 +26,17 @@ import org.junit.Test;
 import pascal.taie.analysis.Tests;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
 
+import java.util.List;
+
 public class InterCPAliasTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
 
+    private static final String OPTIONS = "edge-refine:false;alias-aware:true;pta:cspta";
+
     void test(String inputClass) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:true;pta:cspta",
+                OPTIONS,
                 "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta"
                 //, "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                            // to output ICFGs for the test cases
@@ -83,4 +87,34 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    /**
+     * In heap mode, programs that access only fields, or arrays with a
+     * single stored value, have the same results as in index mode.
+     */
+    @Test
+    public void testHeapMode() {
+        for (String inputClass : List.of("ArrayInter2", "InstanceField",
+                "MultiStores", "Interprocedural2", "ObjSens",
+                "StaticField", "StaticFieldMultiStores")) {
+            Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    OPTIONS + ";alias-mode:heap",
+                    "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+        }
+    }
+
+    /**
+     * In heap mode, all elements of an array object are merged into
+     * one location, so loads of different indexes read the meet of
+     * all values stored to the array. E.g., {@code y = a2[1]} in Array
+     * and {@code x = a[3]} in ArrayLoops.loopMix() become NAC.
+     */
+    @Test
+    public void testHeapModeArrayIndexes() {
+        for (String inputClass : List.of("Array", "ArrayLoops")) {
+            Tests.testVariant(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                    "heap", OPTIONS + ";alias-mode:heap",
+                    "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+        }
+    }
 }
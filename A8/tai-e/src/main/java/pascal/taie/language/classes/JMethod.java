@@ -60,7 +60,11 @@ public class JMethod extends ClassMember {
      */
     private final Object methodSource;
 
-    private IR ir;
+    /**
+     * IR of this method, which is built lazily on first request.
+     * This field is volatile for safe publication to other threads.
+     */
+    private volatile IR ir;
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
@@ -148,19 +152,36 @@ public class JMethod extends ClassMember {
         return methodSource;
     }
 
+    /**
+     * Obtains the IR of this method. The IR (and thus the method body in
+     * the frontend) is built on the first call of this method, so that only
+     * the bodies of the methods requested by analyses, e.g., the reachable
+     * methods discovered by call graph builders, are loaded.
+     * <p>
+     * This method is thread-safe: when multiple threads request the IR
+     * concurrently, the IR is built only once and all threads obtain
+     * the same IR.
+     */
     public IR getIR() {
-        if (ir == null) {
-            if (isAbstract()) {
-                throw new AnalysisException("Abstract method " + this +
-                        " has no method body");
-            }
-            if (isNative()) {
-                ir = World.get().getNativeModel().buildNativeIR(this);
-            } else {
-                ir = World.get().getIRBuilder().buildIR(this);
+        IR result = ir;
+        if (result == null) {
+            synchronized (this) {
+                result = ir;
+                if (result == null) {
+                    if (isAbstract()) {
+                        throw new AnalysisException("Abstract method " + this +
+                                " has no method body");
+                    }
+                    if (isNative()) {
+                        result = World.get().getNativeModel().buildNativeIR(this);
+                    } else {
+                        result = World.get().getIRBuilder().buildIR(this);
+                    }
+                    ir = result;
+                }
             }
         }
-        return ir;
+        return result;
     }
 
     /**